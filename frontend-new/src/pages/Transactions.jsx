@@ -310,19 +310,19 @@ const Transactions = () => {
                     </div>
                     
                     <div className="transaction-accounts">
-                      {transaction.fromAccount && (
+                      {transaction.fromAccountNumber && (
                         <div className="account-info">
                           <span className="account-label">From:</span>
                           <span className="account-number">
-                            ****{transaction.fromAccount.accountNumber?.slice(-4)}
+                            ****{transaction.fromAccountNumber.slice(-4)}
                           </span>
                         </div>
                       )}
-                      {transaction.toAccount && (
+                      {transaction.toAccountNumber && (
                         <div className="account-info">
                           <span className="account-label">To:</span>
                           <span className="account-number">
-                            ****{transaction.toAccount.accountNumber?.slice(-4)}
+                            ****{transaction.toAccountNumber.slice(-4)}
                           </span>
                         </div>
                       )}
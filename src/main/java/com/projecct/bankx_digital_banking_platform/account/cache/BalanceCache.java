@@ -0,0 +1,200 @@
+package com.projecct.bankx_digital_banking_platform.account.cache;
+
+import com.projecct.bankx_digital_banking_platform.common.money.Money;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory table of committed account balances, keyed by primitive int account id and storing
+ * long minor units plus the accounts.version they belong to. Lock-striped open addressing with
+ * optimistic reads, so dashboard balance lookups neither allocate boxes nor take a lock.
+ * <p>
+ * Writers only ever move an entry forward in version. The posting paths use
+ * {@link #putAfterCommit}: the entry is dropped before the transaction commits and written after
+ * it commits, so a reader never gets a balance older than what the database already holds.
+ */
+@Component
+public class BalanceCache {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int EMPTY = 0; // account ids start at 1
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    public BalanceCache() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public BalanceSnapshot get(int accountId) {
+        int hash = mix(accountId);
+        return stripe(hash).get(accountId, hash);
+    }
+
+    // Returns false when the cache already holds the same or a newer version
+    public boolean put(int accountId, BigDecimal balance, long version) {
+        int hash = mix(accountId);
+        return stripe(hash).put(accountId, hash, Money.of(balance).minorUnits(), version);
+    }
+
+    public void invalidate(int accountId) {
+        int hash = mix(accountId);
+        stripe(hash).remove(accountId, hash);
+    }
+
+    public void putAfterCommit(int accountId, BigDecimal balance, long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(accountId, balance, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                invalidate(accountId);
+            }
+
+            @Override
+            public void afterCommit() {
+                put(accountId, balance, version);
+            }
+        });
+    }
+
+    private Stripe stripe(int hash) {
+        return stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private int[] keys = new int[64];
+        private long[] balances = new long[64];
+        private long[] versions = new long[64];
+        private int size;
+
+        BalanceSnapshot get(int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            BalanceSnapshot result = find(key, hash);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private BalanceSnapshot find(int key, int hash) {
+            int[] k = keys;
+            int mask = k.length - 1;
+            // Bounded so a probe racing with a writer always terminates, validate() decides
+            for (int i = hash & mask, n = 0; n < k.length; i = (i + 1) & mask, n++) {
+                int current = k[i];
+                if (current == key) {
+                    long[] b = balances;
+                    long[] v = versions;
+                    return i < b.length && i < v.length ? new BalanceSnapshot(key, b[i], v[i]) : null;
+                }
+                if (current == EMPTY) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        boolean put(int key, int hash, long balance, long version) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int i = hash & mask;
+                while (keys[i] != EMPTY) {
+                    if (keys[i] == key) {
+                        if (versions[i] >= version) {
+                            return false;
+                        }
+                        balances[i] = balance;
+                        versions[i] = version;
+                        return true;
+                    }
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                balances[i] = balance;
+                versions[i] = version;
+                if (++size * 2 > keys.length) {
+                    resize();
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(int key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int i = hash & mask;
+                while (keys[i] != key) {
+                    if (keys[i] == EMPTY) {
+                        return;
+                    }
+                    i = (i + 1) & mask;
+                }
+                // Backward-shift deletion keeps probe chains intact without tombstones
+                int gap = i;
+                for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                    int home = mix(keys[j]) & mask;
+                    if (((j - home) & mask) >= ((j - gap) & mask)) {
+                        keys[gap] = keys[j];
+                        balances[gap] = balances[j];
+                        versions[gap] = versions[j];
+                        gap = j;
+                    }
+                }
+                keys[gap] = EMPTY;
+                size--;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            long[] oldBalances = balances;
+            long[] oldVersions = versions;
+            int capacity = oldKeys.length * 2;
+            int[] newKeys = new int[capacity];
+            long[] newBalances = new long[capacity];
+            long[] newVersions = new long[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = mix(oldKeys[j]) & mask;
+                    while (newKeys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    newKeys[i] = oldKeys[j];
+                    newBalances[i] = oldBalances[j];
+                    newVersions[i] = oldVersions[j];
+                }
+            }
+            // Value arrays first, readers check the key array last and validate afterwards
+            balances = newBalances;
+            versions = newVersions;
+            keys = newKeys;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.projecct.bankx_digital_banking_platform.account.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.projecct.bankx_digital_banking_platform.common.money.Money;
+
+import java.math.BigDecimal;
+
+// Committed balance of an account in minor units, tagged with the accounts.version it was read at
+public record BalanceSnapshot(int accountId, @JsonIgnore long balanceMinor, long version) {
+
+    @JsonProperty("balance")
+    public BigDecimal balance() {
+        return Money.ofMinor(balanceMinor).toBigDecimal();
+    }
+}
@@ -1,13 +1,19 @@
 package com.projecct.bankx_digital_banking_platform.account.controller;
 
 import com.projecct.bankx_digital_banking_platform.account.Account;
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceSnapshot;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalEntryView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountView;
+import com.projecct.bankx_digital_banking_platform.account.snapshot.BalanceAsOf;
 import com.projecct.bankx_digital_banking_platform.account.service.AccountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,38 +26,67 @@ public class AccountController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<Account> getAccountById(@PathVariable Integer id) {
+    public ResponseEntity<AccountView> getAccountById(@PathVariable Integer id) {
         try {
-            Account account = accountService.getAccountById(id);
-            return ResponseEntity.ok(account);
+            return ResponseEntity.ok(accountService.getAccountView(id));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/balance")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BalanceSnapshot> getBalance(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(accountService.getBalance(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/balance/as-of")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BalanceAsOf> getBalanceAsOf(@PathVariable Integer id,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ResponseEntity.ok(accountService.getBalanceAsOf(id, at));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Per-account journal with running balances, one primary-key range scan per page
+    @GetMapping("/{id}/journal")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<List<JournalEntryView>> getJournal(@PathVariable Integer id,
+                                                             @RequestParam(required = false) Long beforeSeq,
+                                                             @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(accountService.getJournal(id, beforeSeq, limit));
+    }
+
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<Account>> getAccountsByCustomerId(@PathVariable UUID customerId) {
-        return ResponseEntity.ok(accountService.getAccountsByCustomer(customerId));
+    public ResponseEntity<List<AccountView>> getAccountsByCustomerId(@PathVariable UUID customerId) {
+        return ResponseEntity.ok(accountService.getAccountViewsByCustomer(customerId));
     }
 
     @PostMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Account> createAccount(
+    public ResponseEntity<AccountView> createAccount(
             @PathVariable UUID customerId,
             @RequestParam Account.AccountType accountType,
             @RequestParam(required = false) BigDecimal initialBalance) {
-        return ResponseEntity.ok(accountService.createAccount(customerId, accountType, initialBalance));
+        return ResponseEntity.ok(AccountView.from(accountService.createAccount(customerId, accountType, initialBalance)));
     }
 
     @PutMapping("/{id}/type")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Account> updateAccountType(
+    public ResponseEntity<AccountView> updateAccountType(
             @PathVariable Integer id,
             @RequestParam Account.AccountType accountType) {
         try {
             Account updated = accountService.updateAccountType(id, accountType);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok(accountService.withCurrentBalance(AccountView.from(updated)));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -70,10 +105,9 @@ public class AccountController {
 
     @GetMapping("/number/{accountNumber}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<Account> getAccountByNumber(@PathVariable String accountNumber) {
+    public ResponseEntity<AccountView> getAccountByNumber(@PathVariable String accountNumber) {
         try {
-            Account account = accountService.getAccountByNumber(accountNumber);
-            return ResponseEntity.ok(account);
+            return ResponseEntity.ok(accountService.getAccountViewByNumber(accountNumber));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,92 @@
+package com.projecct.bankx_digital_banking_platform.account.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Append-only, per-account journal: one row per account leg with the running balance, numbered
+ * 1, 2, 3, ... per account. Sequence numbers are taken from the journal's own tail and running
+ * balances from the account's balance, which is only safe while the accounts rows of the legs are
+ * locked, so {@link #append} must run in the same transaction as, and after, the balance update it
+ * records.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountJournal {
+
+    // Legs keep their list order within an account; max(seq) is a backward scan of the primary key.
+    // balance_after is the running sum in seq order, counted back from the already updated balance,
+    // so it always matches the numbering whatever order the caller computed its balances in.
+    private static final String APPEND =
+            "INSERT INTO account_journal (account_id, seq, reference_id, entry_type, counterparty_account_id, " +
+            "amount, balance_after, created_at) " +
+            "SELECT l.account_id, " +
+            "  COALESCE((SELECT max(j.seq) FROM account_journal j WHERE j.account_id = l.account_id), 0) " +
+            "    + row_number() OVER (PARTITION BY l.account_id ORDER BY l.ord), " +
+            "  l.reference_id, l.entry_type, l.counterparty_account_id, l.amount, " +
+            "  COALESCE(a.balance, 0) - sum(l.amount) OVER (PARTITION BY l.account_id) " +
+            "    + sum(l.amount) OVER (PARTITION BY l.account_id ORDER BY l.ord), " +
+            "  l.created_at " +
+            "FROM unnest(?::int[], ?::varchar[], ?::varchar[], ?::int[], ?::numeric[], ?::timestamp[]) " +
+            "  WITH ORDINALITY AS l(account_id, reference_id, entry_type, counterparty_account_id, amount, created_at, ord) " +
+            "JOIN accounts a ON a.id = l.account_id";
+
+    private static final String PAGE =
+            "SELECT seq, reference_id, entry_type, counterparty_account_id, amount, balance_after, created_at " +
+            "FROM account_journal WHERE account_id = ? AND seq < ? ORDER BY seq DESC LIMIT ?";
+
+    private static final RowMapper<JournalEntryView> ROW_MAPPER = (rs, rowNum) -> new JournalEntryView(
+            rs.getLong("seq"),
+            rs.getString("reference_id"),
+            rs.getString("entry_type"),
+            (Integer) rs.getObject("counterparty_account_id"),
+            rs.getBigDecimal("amount"),
+            rs.getBigDecimal("balance_after"),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<JournalLeg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+        int n = legs.size();
+        Integer[] accountIds = new Integer[n];
+        String[] referenceIds = new String[n];
+        String[] entryTypes = new String[n];
+        Integer[] counterparties = new Integer[n];
+        BigDecimal[] amounts = new BigDecimal[n];
+        Timestamp[] createdAt = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            JournalLeg leg = legs.get(i);
+            accountIds[i] = leg.accountId();
+            referenceIds[i] = leg.referenceId();
+            entryTypes[i] = leg.entryType();
+            counterparties[i] = leg.counterpartyAccountId();
+            amounts[i] = leg.amount();
+            createdAt[i] = Timestamp.valueOf(leg.createdAt());
+        }
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(APPEND);
+            ps.setArray(1, con.createArrayOf("int4", accountIds));
+            ps.setArray(2, con.createArrayOf("varchar", referenceIds));
+            ps.setArray(3, con.createArrayOf("varchar", entryTypes));
+            ps.setArray(4, con.createArrayOf("int4", counterparties));
+            ps.setArray(5, con.createArrayOf("numeric", amounts));
+            ps.setArray(6, con.createArrayOf("timestamp", createdAt));
+            return ps;
+        });
+    }
+
+    // Newest first, strictly before beforeSeq when given
+    public List<JournalEntryView> findPage(Integer accountId, Long beforeSeq, int limit) {
+        return jdbcTemplate.query(PAGE, ROW_MAPPER, accountId, beforeSeq != null ? beforeSeq : Long.MAX_VALUE, limit);
+    }
+}
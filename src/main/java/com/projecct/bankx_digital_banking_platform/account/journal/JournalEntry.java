@@ -0,0 +1,51 @@
+package com.projecct.bankx_digital_banking_platform.account.journal;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Mapped so the schema exists without migrations; reads and writes go through AccountJournal
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(JournalEntry.Key.class)
+@Table(name = "account_journal", indexes = @Index(name = "idx_account_journal_account_created", columnList = "account_id, created_at"))
+public class JournalEntry {
+
+    @Id
+    private Integer accountId;
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private String referenceId;
+
+    @Column(length = 20, nullable = false)
+    private String entryType; // DEBIT, CREDIT, TRANSFER, OPENING, ADJUSTMENT
+
+    private Integer counterpartyAccountId;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal amount; // signed, negative for money leaving the account
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer accountId;
+        private Long seq;
+    }
+}
@@ -0,0 +1,13 @@
+package com.projecct.bankx_digital_banking_platform.account.journal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record JournalEntryView(long seq,
+                               String referenceId,
+                               String entryType,
+                               Integer counterpartyAccountId,
+                               BigDecimal amount,
+                               BigDecimal balanceAfter,
+                               LocalDateTime createdAt) {
+}
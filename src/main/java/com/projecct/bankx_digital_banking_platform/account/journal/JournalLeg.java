@@ -0,0 +1,14 @@
+package com.projecct.bankx_digital_banking_platform.account.journal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One side of a posting as seen by a single account, amount is signed. The running balance is
+// worked out by the journal itself.
+public record JournalLeg(Integer accountId,
+                         String referenceId,
+                         String entryType,
+                         Integer counterpartyAccountId,
+                         BigDecimal amount,
+                         LocalDateTime createdAt) {
+}
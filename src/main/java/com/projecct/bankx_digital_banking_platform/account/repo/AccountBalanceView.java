@@ -0,0 +1,11 @@
+package com.projecct.bankx_digital_banking_platform.account.repo;
+
+import java.math.BigDecimal;
+
+// Lightweight projection used by the posting path, avoids loading Account + Customer entities
+public interface AccountBalanceView {
+    Integer getId();
+    BigDecimal getBalance();
+    Long getVersion();
+    String getOwnerName();
+}
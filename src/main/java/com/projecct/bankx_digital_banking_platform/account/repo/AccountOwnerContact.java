@@ -0,0 +1,9 @@
+package com.projecct.bankx_digital_banking_platform.account.repo;
+
+// Who to notify about an account, used by the event consumers
+public interface AccountOwnerContact {
+    Integer getAccountId();
+    String getAccountNumber();
+    String getName();
+    String getEmail();
+}
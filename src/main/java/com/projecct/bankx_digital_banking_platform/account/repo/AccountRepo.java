@@ -1,13 +1,63 @@
 package com.projecct.bankx_digital_banking_platform.account.repo;
 
 import com.projecct.bankx_digital_banking_platform.account.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface AccountRepo extends JpaRepository<Account, Integer> {
-    List<Account> findByCustomerId(UUID customerId);
-    Optional<Account> findByAccountNumber(String accountNumber);
+
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.account.repo.AccountView(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.version, c.id, c.name) " +
+            "FROM Account a LEFT JOIN a.customer c WHERE a.id = :id")
+    Optional<AccountView> findViewById(@Param("id") Integer id);
+
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.account.repo.AccountView(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.version, c.id, c.name) " +
+            "FROM Account a LEFT JOIN a.customer c WHERE a.accountNumber = :accountNumber")
+    Optional<AccountView> findViewByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.account.repo.AccountView(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.version, c.id, c.name) " +
+            "FROM Account a JOIN a.customer c WHERE c.id = :customerId ORDER BY a.id")
+    List<AccountView> findViewsByCustomerId(@Param("customerId") UUID customerId);
+
+    @Query("SELECT a.id FROM Account a WHERE a.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Integer id);
+
+    @Query("SELECT a.id AS id, a.balance AS balance, a.version AS version, c.name AS ownerName FROM Account a LEFT JOIN a.customer c WHERE a.id = :id")
+    Optional<AccountBalanceView> findBalanceViewById(@Param("id") Integer id);
+
+    @Query("SELECT a.id AS accountId, a.accountNumber AS accountNumber, c.name AS name, c.email AS email " +
+            "FROM Account a JOIN a.customer c WHERE a.id = :id")
+    Optional<AccountOwnerContact> findOwnerContactById(@Param("id") Integer id);
+
+    @Query("SELECT a.id AS accountId, a.accountNumber AS accountNumber, c.name AS name, c.email AS email " +
+            "FROM Account a JOIN a.customer c WHERE a.id IN :ids")
+    List<AccountOwnerContact> findOwnerContactsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Single-statement debit, empty when the account is missing or the balance is too low
+    @Query(value = "UPDATE accounts a SET balance = a.balance - :amount, version = a.version + 1 " +
+            "WHERE a.id = :id AND a.balance >= :amount " +
+            "RETURNING a.id AS \"id\", a.balance AS \"balance\", a.version AS \"version\", " +
+            "(SELECT c.name FROM customers c WHERE c.id = a.customer_id) AS \"ownerName\"", nativeQuery = true)
+    Optional<AccountBalanceView> debitIfSufficient(@Param("id") Integer id, @Param("amount") BigDecimal amount);
+
+    @Query(value = "UPDATE accounts a SET balance = COALESCE(a.balance, 0) + :amount, version = a.version + 1 " +
+            "WHERE a.id = :id " +
+            "RETURNING a.id AS \"id\", a.balance AS \"balance\", a.version AS \"version\", " +
+            "(SELECT c.name FROM customers c WHERE c.id = a.customer_id) AS \"ownerName\"", nativeQuery = true)
+    Optional<AccountBalanceView> credit(@Param("id") Integer id, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,40 @@
+package com.projecct.bankx_digital_banking_platform.account.repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.projecct.bankx_digital_banking_platform.account.Account;
+import com.projecct.bankx_digital_banking_platform.customer.Customer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Account read model, loaded with its owner in one select. Serializes as
+ * {id, accountNumber, accountType, balance, customer: {id, name}}.
+ */
+public record AccountView(Integer id,
+                          String accountNumber,
+                          Account.AccountType accountType,
+                          BigDecimal balance,
+                          @JsonIgnore Long version,
+                          @JsonIgnore UUID customerId,
+                          @JsonIgnore String customerName) {
+
+    public record Owner(UUID id, String name) {
+    }
+
+    @JsonProperty("customer")
+    public Owner customer() {
+        return customerId != null ? new Owner(customerId, customerName) : null;
+    }
+
+    public AccountView withBalance(BigDecimal balance, long version) {
+        return new AccountView(id, accountNumber, accountType, balance, version, customerId, customerName);
+    }
+
+    public static AccountView from(Account account) {
+        Customer customer = account.getCustomer();
+        return new AccountView(account.getId(), account.getAccountNumber(), account.getAccountType(), account.getBalance(),
+                account.getVersion(), customer != null ? customer.getId() : null, customer != null ? customer.getName() : null);
+    }
+}
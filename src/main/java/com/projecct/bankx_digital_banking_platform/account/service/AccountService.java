@@ -1,19 +1,31 @@
 package com.projecct.bankx_digital_banking_platform.account.service;
 
 import com.projecct.bankx_digital_banking_platform.account.Account;
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceSnapshot;
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalEntryView;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalLeg;
 import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountView;
+import com.projecct.bankx_digital_banking_platform.account.snapshot.BalanceAsOf;
+import com.projecct.bankx_digital_banking_platform.account.snapshot.BalanceSnapshotStore;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.common.money.Money;
 import com.projecct.bankx_digital_banking_platform.customer.Customer;
+import com.projecct.bankx_digital_banking_platform.kafka.event.AccountCreated;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
 import com.projecct.bankx_digital_banking_platform.customer.repo.CustomerRepo;
-import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
 import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
 import jakarta.transaction.Transactional;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEventsWritten;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,19 +35,36 @@ public class AccountService {
     private final AccountRepo accountRepo;
     private final CustomerRepo customerRepo;
     private final OutboxRepo outboxRepo;
+    private final PostingEngine postingEngine;
+    private final BalanceCache balanceCache;
+    private final EventCodec eventCodec;
+    private final AccountJournal accountJournal;
+    private final BalanceSnapshotStore balanceSnapshotStore;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final int maxPageSize;
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
-    public AccountService(AccountRepo accountRepo, CustomerRepo customerRepo, OutboxRepo outboxRepo, ApplicationEventPublisher applicationEventPublisher) {
+    public AccountService(AccountRepo accountRepo, CustomerRepo customerRepo, OutboxRepo outboxRepo,
+                          PostingEngine postingEngine, BalanceCache balanceCache, EventCodec eventCodec,
+                          AccountJournal accountJournal, BalanceSnapshotStore balanceSnapshotStore,
+                          ReferenceIdGenerator referenceIdGenerator, ApplicationEventPublisher applicationEventPublisher,
+                          @Value("${app.history.max-page-size:200}") int maxPageSize) {
         this.accountRepo = accountRepo;
         this.customerRepo = customerRepo;
         this.outboxRepo = outboxRepo;
+        this.postingEngine = postingEngine;
+        this.balanceCache = balanceCache;
+        this.eventCodec = eventCodec;
+        this.accountJournal = accountJournal;
+        this.balanceSnapshotStore = balanceSnapshotStore;
+        this.referenceIdGenerator = referenceIdGenerator;
+        this.maxPageSize = maxPageSize;
         this.applicationEventPublisher = applicationEventPublisher;
     }
 
     // 1️⃣ Create a new account for an existing customer
     @Transactional
-    @CacheEvict(value = "accountsByCustomer", key = "#customerId")
     public Account createAccount(UUID customerId, Account.AccountType accountType, BigDecimal initialBalance) {
         Customer customer = customerRepo.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
@@ -44,69 +73,114 @@ public class AccountService {
         account.setCustomer(customer);
         account.setAccountType(accountType);
         account.setBalance(initialBalance != null ? initialBalance : BigDecimal.ZERO);
-        Account saved = accountRepo.save(account);
+        // Flushed so the journal, which reads the balance back from the row, can see it
+        Account saved = accountRepo.saveAndFlush(account);
+        if (saved.getBalance().signum() != 0) {
+            accountJournal.append(List.of(new JournalLeg(saved.getId(), referenceIdGenerator.next(), "OPENING", null,
+                    saved.getBalance(), LocalDateTime.now())));
+        }
 
         //? for Kafka
         OutboxEvent event = new OutboxEvent();
         event.setAggregateType("Account");
         event.setAggregateId(saved.getId().toString());
+        event.setEventKey(saved.getId().toString());
         event.setType("ACCOUNT_CREATED");
-        event.setPayload(
-                "{ \"name\": \"" + customer.getName() + "\", " +
-                        "\"email\": \"" + customer.getEmail() + "\", " +
-                        "\"accountNumber\": \"" + saved.getAccountNumber() + "\" }"
-        );
-        event.setStatus(Transaction.Status.PENDING);
+        event.setPayload(eventCodec.write(
+                new AccountCreated(saved.getId(), saved.getAccountNumber(), customer.getName(), customer.getEmail())));
+        event.setStatus(OutboxEvent.Status.PENDING);
         outboxRepo.save(event);
+        applicationEventPublisher.publishEvent(OutboxEventsWritten.INSTANCE);
 
         return saved;
     }
 
-    // 2️⃣ Get account by ID
-    @Cacheable(value = "accountById", key = "#accountId")
-    public Account getAccountById(Integer accountId) {
-        return accountRepo.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+    // Read model for the API: account and owner in one select, balance overlaid from the cache
+    public AccountView getAccountView(Integer accountId) {
+        return withCurrentBalance(accountRepo.findViewById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found")));
+    }
+
+    public AccountView getAccountViewByNumber(String accountNumber) {
+        return withCurrentBalance(accountRepo.findViewByAccountNumber(accountNumber)
+                .orElseThrow(() -> new RuntimeException("Account not found")));
     }
 
-    // 3️⃣ Get all accounts of a customer
-    @Cacheable(value = "accountsByCustomer", key = "#customerId")
-    public List<Account> getAccountsByCustomer(UUID customerId) {
-        return accountRepo.findByCustomerId(customerId);
+    public List<AccountView> getAccountViewsByCustomer(UUID customerId) {
+        return accountRepo.findViewsByCustomerId(customerId).stream().map(this::withCurrentBalance).toList();
     }
 
-    // 4️⃣ Get account by account number
-    @Cacheable(value = "accountByNumber", key = "#accountNumber")
-    public Account getAccountByNumber(String accountNumber) {
-        return accountRepo.findByAccountNumber(accountNumber)
+    // Committed balance, served from the BalanceCache and loaded from the DB only on a miss
+    public BalanceSnapshot getBalance(Integer accountId) {
+        BalanceSnapshot cached = balanceCache.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        var view = accountRepo.findBalanceViewById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
+        BigDecimal balance = view.getBalance() != null ? view.getBalance() : BigDecimal.ZERO;
+        balanceCache.put(accountId, balance, view.getVersion());
+        return new BalanceSnapshot(accountId, Money.of(balance).minorUnits(), view.getVersion());
+    }
+
+    // Views can be older than the balance cache (postings do not go through JPA), overlay the balance when the cache is ahead
+    public AccountView withCurrentBalance(AccountView view) {
+        BalanceSnapshot current = balanceCache.get(view.id());
+        if (current != null && (view.version() == null || current.version() > view.version())) {
+            return view.withBalance(current.balance(), current.version());
+        }
+        return view;
     }
 
     // 4️⃣ Update account type (e.g., upgrade from SAVINGS to CURRENT)
-    @CachePut(value = "accountById", key = "#accountId")
-    @CacheEvict(value = "accountsByCustomer", key = "#result.customer.id")
     @Transactional
     public Account updateAccountType(Integer accountId, Account.AccountType accountType) {
-        Account account = getAccountById(accountId);
+        Account account = findAccount(accountId);
         account.setAccountType(accountType);
         return accountRepo.save(account);
     }
 
     // 5️⃣ Update balance (internal method, usually called from TransactionService)
     @Transactional
-    @CachePut(value = "accountById", key = "#accountId")
     public Account updateBalance(Integer accountId, BigDecimal newBalance) {
-        Account account = getAccountById(accountId);
+        Account account = findAccount(accountId);
+        BigDecimal previous = account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
         account.setBalance(newBalance);
-        return accountRepo.save(account);
+        // Flush so the bumped version is known before it goes into the balance cache
+        Account saved = accountRepo.saveAndFlush(account);
+        // The flushed update holds the row lock the journal numbering relies on
+        accountJournal.append(List.of(new JournalLeg(accountId, referenceIdGenerator.next(), "ADJUSTMENT", null,
+                newBalance.subtract(previous), LocalDateTime.now())));
+        balanceCache.putAfterCommit(accountId, saved.getBalance(), saved.getVersion());
+        postingEngine.evict(accountId);
+        return saved;
+    }
+
+    // Statement page, newest first; pass the last seq of the previous page as beforeSeq
+    public List<JournalEntryView> getJournal(Integer accountId, Long beforeSeq, int limit) {
+        return accountJournal.findPage(accountId, beforeSeq, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    // Balance at a past instant: nearest closing snapshot rolled forward by the journal legs after it
+    public BalanceAsOf getBalanceAsOf(Integer accountId, LocalDateTime at) {
+        if (!accountRepo.existsById(accountId)) {
+            throw new RuntimeException("Account not found");
+        }
+        return balanceSnapshotStore.balanceAsOf(accountId, at);
     }
 
-//    @CacheEvict(value = "accountsByCustomer", allEntries = true) // customer-specific might not be known
     @Transactional
-    @CacheEvict(value = "accountById", key = "#accountId")
     public void deleteAccount(Integer accountId) {
-        Account account = getAccountById(accountId);
+        Account account = findAccount(accountId);
         accountRepo.delete(account);
+        postingEngine.evict(accountId);
+        balanceCache.invalidate(accountId);
     }
     // 6️⃣ Delete account (optional, soft delete recommended in banking)
+
+    // Entity for the writes above; reads go through the views, whose balance the BalanceCache keeps current
+    private Account findAccount(Integer accountId) {
+        return accountRepo.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+    }
 }
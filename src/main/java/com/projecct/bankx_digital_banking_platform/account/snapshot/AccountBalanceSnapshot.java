@@ -0,0 +1,46 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Mapped so the schema exists without migrations; reads and writes go through BalanceSnapshotStore
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(AccountBalanceSnapshot.Key.class)
+@Table(name = "account_balance_snapshots", indexes = @Index(name = "idx_account_balance_snapshots_as_of", columnList = "as_of"))
+public class AccountBalanceSnapshot {
+
+    @Id
+    private Integer accountId;
+
+    @Id
+    private LocalDateTime asOf; // closing instant, legs created before it are included
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private Long seq; // highest account_journal seq covered, 0 when there was none
+
+    // BalanceSnapshotStore leaves it to the column default, as V20 does
+    @ColumnDefault("now()")
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer accountId;
+        private LocalDateTime asOf;
+    }
+}
@@ -0,0 +1,8 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// snapshotAt is the closing snapshot the balance was rolled forward from, null when there was none
+public record BalanceAsOf(Integer accountId, LocalDateTime at, BigDecimal balance, LocalDateTime snapshotAt) {
+}
@@ -0,0 +1,90 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the closing balance of every account at each period boundary (midnight by default).
+ * A boundary is only snapshotted once the grace period after it has passed, so postings stamped
+ * just before it have committed. Boundaries missed while no instance was running are filled in,
+ * up to max-catch-up-periods; a boundary left half done is completed on the next start.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshotJob {
+
+    private final BalanceSnapshotStore store;
+    private final Duration period;
+    private final Duration grace;
+    private final int batchSize;
+    private final int maxCatchUpPeriods;
+    private volatile LocalDateTime lastCompleted;
+
+    public BalanceSnapshotJob(BalanceSnapshotStore store,
+                              @Value("${app.snapshot.period-hours:24}") int periodHours,
+                              @Value("${app.snapshot.grace-minutes:5}") long graceMinutes,
+                              @Value("${app.snapshot.batch-size:5000}") int batchSize,
+                              @Value("${app.snapshot.max-catch-up-periods:31}") int maxCatchUpPeriods) {
+        if (periodHours <= 0 || 24 % periodHours != 0) {
+            throw new IllegalArgumentException("app.snapshot.period-hours must divide 24, was " + periodHours);
+        }
+        this.store = store;
+        this.period = Duration.ofHours(periodHours);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.batchSize = batchSize;
+        this.maxCatchUpPeriods = maxCatchUpPeriods;
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshot.check-interval-ms:300000}")
+    public void snapshotDue() {
+        LocalDateTime target = boundaryAtOrBefore(LocalDateTime.now().minus(grace), period);
+        if (target.equals(lastCompleted)) {
+            return;
+        }
+        LocalDateTime from = lastCompleted != null ? lastCompleted.plus(period) : store.latestAsOf();
+        for (LocalDateTime boundary : boundaries(from, target, period, maxCatchUpPeriods)) {
+            snapshot(boundary);
+            lastCompleted = boundary;
+        }
+    }
+
+    private void snapshot(LocalDateTime boundary) {
+        long start = System.nanoTime();
+        int batches = 0;
+        Integer after = 0;
+        // One statement per batch, each commits on its own
+        while ((after = store.snapshotBatch(boundary, after, batchSize)) != null) {
+            batches++;
+        }
+        log.info("Balance snapshot at {} done in {} batches, {} ms", boundary, batches,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // The period boundary at or before the given time, boundaries are aligned to midnight
+    static LocalDateTime boundaryAtOrBefore(LocalDateTime time, Duration period) {
+        LocalDateTime midnight = time.toLocalDate().atStartOfDay();
+        long periods = Duration.between(midnight, time).toNanos() / period.toNanos();
+        return midnight.plus(period.multipliedBy(periods));
+    }
+
+    // from (inclusive, may be null) through target, the most recent maxPeriods of them
+    static List<LocalDateTime> boundaries(LocalDateTime from, LocalDateTime target, Duration period, int maxPeriods) {
+        if (from == null) {
+            return List.of(target);
+        }
+        LocalDateTime earliest = target.minus(period.multipliedBy(maxPeriods - 1L));
+        LocalDateTime boundary = from.isBefore(earliest) ? earliest : from;
+        List<LocalDateTime> result = new ArrayList<>();
+        for (; !boundary.isAfter(target); boundary = boundary.plus(period)) {
+            result.add(boundary);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes closing-balance snapshots. A snapshot is the previous snapshot rolled forward by
+ * the journal legs stamped between the two boundaries, so it never depends on the running balance
+ * stored on a leg. Windows are by created_at rather than seq: legs are stamped before they commit,
+ * so a later seq can carry an earlier time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSnapshotStore {
+
+    // Balance before the account's first journal leg, or the current balance when it has none
+    private static final String OPENING =
+            "COALESCE((SELECT COALESCE(o.balance_after - o.amount, 0) FROM account_journal o " +
+            "  WHERE o.account_id = %1$s ORDER BY o.seq LIMIT 1), (SELECT balance FROM accounts WHERE id = %1$s), 0)";
+
+    // Accounts in id order after afterAccountId; the last id of the batch is where the next one starts.
+    // seq records the highest leg the snapshot covers, for reference only.
+    private static final String SNAPSHOT_BATCH =
+            "WITH a AS (SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?), " +
+            "ins AS (INSERT INTO account_balance_snapshots (account_id, as_of, balance, seq) " +
+            "  SELECT a.id, ?::timestamp, COALESCE(p.balance, " + String.format(OPENING, "a.id") + ") + COALESCE(w.delta, 0), " +
+            "    COALESCE(GREATEST(w.seq, p.seq), 0) FROM a " +
+            "  LEFT JOIN LATERAL (SELECT as_of, balance, seq FROM account_balance_snapshots " +
+            "    WHERE account_id = a.id AND as_of < ? ORDER BY as_of DESC LIMIT 1) p ON true " +
+            "  LEFT JOIN LATERAL (SELECT sum(amount) AS delta, max(seq) AS seq FROM account_journal " +
+            "    WHERE account_id = a.id AND created_at >= COALESCE(p.as_of, '-infinity') AND created_at < ?) w ON true " +
+            "  ON CONFLICT (account_id, as_of) DO NOTHING) " +
+            "SELECT max(id) FROM a";
+
+    private static final String LATEST_AS_OF =
+            "SELECT max(as_of) FROM account_balance_snapshots";
+
+    // Nearest snapshot at or before :at, plus the journal legs stamped from its boundary up to :at
+    private static final String BALANCE_AS_OF =
+            "WITH s AS (SELECT as_of, balance FROM account_balance_snapshots " +
+            "  WHERE account_id = ? AND as_of <= ? ORDER BY as_of DESC LIMIT 1) " +
+            "SELECT (SELECT as_of FROM s) AS snapshot_at, " +
+            "  COALESCE((SELECT balance FROM s), " + String.format(OPENING, "?") + ") " +
+            "  + COALESCE((SELECT sum(amount) FROM account_journal WHERE account_id = ? " +
+            "    AND created_at >= COALESCE((SELECT as_of FROM s), '-infinity') AND created_at <= ?), 0) AS balance";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Snapshots up to batchSize accounts after afterAccountId, returns the last account id of the batch or null when done.
+    // Accounts another instance already snapshotted are skipped.
+    public Integer snapshotBatch(LocalDateTime asOf, int afterAccountId, int batchSize) {
+        Timestamp boundary = Timestamp.valueOf(asOf);
+        return jdbcTemplate.queryForObject(SNAPSHOT_BATCH, Integer.class, afterAccountId, batchSize, boundary, boundary, boundary);
+    }
+
+    public LocalDateTime latestAsOf() {
+        Timestamp latest = jdbcTemplate.queryForObject(LATEST_AS_OF, Timestamp.class);
+        return latest != null ? latest.toLocalDateTime() : null;
+    }
+
+    public BalanceAsOf balanceAsOf(Integer accountId, LocalDateTime at) {
+        Timestamp instant = Timestamp.valueOf(at);
+        return jdbcTemplate.queryForObject(BALANCE_AS_OF, (rs, rowNum) -> {
+            Timestamp snapshotAt = rs.getTimestamp("snapshot_at");
+            BigDecimal balance = rs.getBigDecimal("balance");
+            return new BalanceAsOf(accountId, at, balance, snapshotAt != null ? snapshotAt.toLocalDateTime() : null);
+        }, accountId, instant, accountId, accountId, accountId, instant);
+    }
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Audit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_seq")
+    @SequenceGenerator(name = "audit_logs_seq", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id; // Unique audit record ID
 
     private String entityName; // e.g., "Transaction", "Account"
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class LedgerEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
     private Long id; // Auto-generated ledger entry ID
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,34 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+/**
+ * Snowflake ids for whatever node id the {@link NodeIdLease} currently holds. Throws while the lease
+ * holds none, and continues with a new Snowflake sequence when the lease moved to a different node id.
+ */
+public class LeasedReferenceIdGenerator implements ReferenceIdGenerator {
+
+    private final NodeIdLease lease;
+    private volatile Node current;
+
+    public LeasedReferenceIdGenerator(NodeIdLease lease) {
+        this.lease = lease;
+    }
+
+    @Override
+    public String next() {
+        long nodeId = lease.nodeId();
+        Node node = current;
+        if (node == null || node.id() != nodeId) {
+            synchronized (this) {
+                node = current;
+                if (node == null || node.id() != nodeId) {
+                    node = new Node(nodeId, new SnowflakeReferenceIdGenerator(nodeId));
+                    current = node;
+                }
+            }
+        }
+        return node.generator().next();
+    }
+
+    private record Node(long id, SnowflakeReferenceIdGenerator generator) {
+    }
+}
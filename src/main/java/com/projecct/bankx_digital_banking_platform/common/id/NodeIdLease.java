@@ -0,0 +1,144 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The Snowflake node id of this instance, held as a session advisory lock on one dedicated
+ * connection for the instance's lifetime so no two instances against the same database share one.
+ * With app.reference-id.node-id set that id is claimed and startup fails if another instance holds
+ * it; left empty the lowest free id is claimed. Once the lock connection is found lost no node id is
+ * held and {@link #nodeId()} throws, which stops id generation, until the same id is taken again. If
+ * another instance got it meanwhile a free id is claimed instead, or, with a pinned id, generation
+ * stays stopped until that id is free again.
+ */
+@Slf4j
+@Component
+public class NodeIdLease {
+
+    // Two-int advisory lock key (namespace, node id), kept apart from the posting and outbox locks
+    static final int NAMESPACE = 0x0B0E;
+
+    private final DataSource dataSource;
+    private final boolean pinned;
+    private Connection connection;
+    // The node id last leased, only valid while held
+    private volatile long heldNode;
+    private volatile boolean held;
+
+    public NodeIdLease(DataSource dataSource, @Value("${app.reference-id.node-id:}") String configured) throws SQLException {
+        this.dataSource = dataSource;
+        this.pinned = StringUtils.hasText(configured);
+        if (pinned) {
+            long requested = Long.parseLong(configured.trim());
+            if (requested < 0 || requested > SnowflakeReferenceIdGenerator.MAX_NODE_ID) {
+                throw new IllegalArgumentException("app.reference-id.node-id must be between 0 and "
+                        + SnowflakeReferenceIdGenerator.MAX_NODE_ID + ", was " + requested);
+            }
+            if (!acquire(requested)) {
+                throw new IllegalStateException("Reference id node " + requested + " is held by another instance, "
+                        + "give each instance its own app.reference-id.node-id or leave it empty to claim a free one");
+            }
+        } else {
+            claimFree();
+        }
+        log.info("Holding reference id node {}", heldNode);
+    }
+
+    public long nodeId() {
+        long node = heldNode;
+        if (!held) {
+            throw new IllegalStateException("No reference id node is leased, reference ids are stopped until one is");
+        }
+        return node;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reference-id.check-interval-ms:10000}")
+    public synchronized void verify() {
+        try {
+            if (held && connection.isValid(5)) {
+                return;
+            }
+            long previous = heldNode;
+            if (held) {
+                log.warn("Reference id node {} connection lost, reference ids are stopped until a node is leased again", previous);
+                close();
+            }
+            if (acquire(previous)) {
+                log.info("Holding reference id node {} again", previous);
+            } else if (pinned) {
+                log.error("Another instance holds reference id node {}, reference ids stay stopped until it is free", previous);
+            } else {
+                log.warn("Another instance took reference id node {}, now holding node {}", previous, claimFree());
+            }
+        } catch (SQLException | IllegalStateException e) {
+            log.warn("Could not lease a reference id node again: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        close();
+    }
+
+    private long claimFree() throws SQLException {
+        for (long candidate = 0; candidate <= SnowflakeReferenceIdGenerator.MAX_NODE_ID; candidate++) {
+            if (acquire(candidate)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + (SnowflakeReferenceIdGenerator.MAX_NODE_ID + 1)
+                + " reference id nodes are held by running instances");
+    }
+
+    private synchronized boolean acquire(long id) throws SQLException {
+        close();
+        Connection candidate = dataSource.getConnection();
+        try {
+            candidate.setAutoCommit(true);
+            try (PreparedStatement ps = candidate.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                ps.setInt(1, NAMESPACE);
+                ps.setInt(2, (int) id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        connection = candidate;
+                        heldNode = id;
+                        held = true;
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            candidate.close();
+            throw e;
+        }
+        candidate.close();
+        return false;
+    }
+
+    // Unlocked explicitly: a pooled connection goes back to the pool with its session, and the lock with it
+    private void close() {
+        held = false;
+        if (connection == null) {
+            return;
+        }
+        try (Connection locked = connection; PreparedStatement ps = locked.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+            ps.setInt(1, NAMESPACE);
+            ps.setInt(2, (int) heldNode);
+            ps.execute();
+        } catch (SQLException e) {
+            log.debug("Releasing reference id node {} failed: {}", heldNode, e.getMessage());
+        }
+        connection = null;
+    }
+}
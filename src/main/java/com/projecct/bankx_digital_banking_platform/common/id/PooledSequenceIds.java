@@ -0,0 +1,59 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary keys for rows written with plain JDBC, taken from the same sequences the entities use
+ * and the same way Hibernate's pooled-lo optimizer does: every nextval reserves the block
+ * [value, value + 49]. Plain inserts therefore never collide with Hibernate's ids, do not burn a
+ * block per row, and do not rely on column defaults that a schema built by ddl-auto lacks.
+ * Unused ids of a block are kept for the next call.
+ */
+@Component
+@RequiredArgsConstructor
+public class PooledSequenceIds {
+
+    // Must match allocationSize of the entities' @SequenceGenerator and the sequences' INCREMENT BY
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String NEXT_BLOCKS = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    public synchronized long[] next(String sequence, int count) {
+        long[] ids = new long[count];
+        Block block = blocks.computeIfAbsent(sequence, s -> new Block());
+        int filled = block.take(ids, 0);
+        if (filled < count) {
+            int needed = (count - filled + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+            List<Long> starts = jdbcTemplate.queryForList(NEXT_BLOCKS, Long.class, sequence, needed);
+            for (Long start : starts) {
+                block.next = start;
+                block.end = start + ALLOCATION_SIZE;
+                filled = block.take(ids, filled);
+            }
+        }
+        return ids;
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+
+        // Fills ids from index from on, returns the index after the last id written
+        private int take(long[] ids, int from) {
+            int i = from;
+            while (i < ids.length && next < end) {
+                ids[i++] = next++;
+            }
+            return i;
+        }
+    }
+}
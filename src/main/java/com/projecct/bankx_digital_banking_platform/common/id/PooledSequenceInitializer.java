@@ -0,0 +1,52 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves every pooled id sequence past the highest id of its table before anything is inserted.
+ * V13 does this when it creates the sequences, but with Flyway disabled an existing database gets
+ * them from ddl-auto starting at 1, and the first blocks handed out (by Hibernate or
+ * {@link PooledSequenceIds}) would collide with existing rows. A sequence that is already ahead is
+ * left alone. Runs once the EntityManagerFactory is built, so ddl-auto has created the sequences,
+ * and fails startup if a sequence cannot be checked.
+ */
+@Slf4j
+@Component
+public class PooledSequenceInitializer {
+
+    // Sequence -> table, as mapped by the entities' @SequenceGenerator
+    static final Map<String, String> SEQUENCES = Map.of(
+            "accounts_seq", "accounts",
+            "transactions_seq", "transactions",
+            "ledger_entries_seq", "ledger_entries",
+            "audit_logs_seq", "audit_logs",
+            "outbox_events_seq", "outbox_events");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory is only a dependency so this runs after ddl-auto
+    public PooledSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The first id of the block the next nextval hands out
+            long nextId = jdbcTemplate.queryForObject("SELECT CASE WHEN is_called THEN last_value + "
+                    + PooledSequenceIds.ALLOCATION_SIZE + " ELSE last_value END FROM " + sequence, Long.class);
+            if (nextId <= maxId) {
+                jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, maxId + 1);
+                log.warn("Sequence {} was behind {} (next id {}, max id {}), moved to {}", sequence, table, nextId,
+                        maxId, maxId + 1);
+            }
+        });
+    }
+}
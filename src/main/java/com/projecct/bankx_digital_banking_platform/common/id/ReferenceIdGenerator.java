@@ -0,0 +1,6 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+// Source of transaction reference ids, shared by Transaction.referenceId and LedgerEntry.transactionRefId
+public interface ReferenceIdGenerator {
+    String next();
+}
@@ -0,0 +1,69 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered, collision-free reference ids in the Snowflake layout:
+ * 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a 12 bit per-millisecond sequence.
+ * The 63-bit value is rendered as "TXN-" + 13 Crockford base32 characters, so ids sort by creation time.
+ * <p>
+ * Ids are strictly increasing per node (a lock-free CAS on the last issued id); if the sequence
+ * runs out within a millisecond or the wall clock goes backwards the generator keeps counting from
+ * the last id instead of waiting. Uniqueness across instances relies on every instance having its
+ * own node id.
+ */
+public class SnowflakeReferenceIdGenerator implements ReferenceIdGenerator {
+
+    public static final String PREFIX = "TXN-";
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeBits;
+    private final AtomicLong lastId = new AtomicLong();
+
+    public SnowflakeReferenceIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public String next() {
+        return format(nextId());
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastId.get();
+            long candidate = ((System.currentTimeMillis() - EPOCH_MILLIS) << TIMESTAMP_SHIFT) | nodeBits;
+            if (candidate <= last) {
+                // Same millisecond (or clock went back): next sequence, rolling over into the next millisecond
+                candidate = (last & SEQUENCE_MASK) == SEQUENCE_MASK
+                        ? (((last >>> TIMESTAMP_SHIFT) + 1) << TIMESTAMP_SHIFT) | nodeBits
+                        : last + 1;
+            }
+            if (lastId.compareAndSet(last, candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,25 @@
+package com.projecct.bankx_digital_banking_platform.config;
+
+import com.projecct.bankx_digital_banking_platform.notification.SmtpTransportPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+@Configuration
+public class MailConfig {
+
+    // Same host, credentials and session properties as the auto-configured JavaMailSender
+    @Bean(destroyMethod = "close")
+    public SmtpTransportPool smtpTransportPool(JavaMailSenderImpl mailSender,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.email.smtp.pool-size:8}") int poolSize,
+                                               @Value("${app.email.smtp.max-idle-ms:30000}") long maxIdleMs,
+                                               @Value("${app.email.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                                               @Value("${app.email.smtp.borrow-timeout-ms:30000}") long borrowTimeoutMs) {
+        return new SmtpTransportPool(mailSender.getSession(), mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword(),
+                poolSize, maxIdleMs, maxMessagesPerConnection, borrowTimeoutMs, meterRegistry);
+    }
+}
@@ -0,0 +1,10 @@
+package com.projecct.bankx_digital_banking_platform.config;
+
+import com.projecct.bankx_digital_banking_platform.kafka.OutboxRoutingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OutboxRoutingProperties.class)
+public class OutboxConfig {
+}
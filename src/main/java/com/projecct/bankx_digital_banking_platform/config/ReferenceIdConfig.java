@@ -0,0 +1,24 @@
+package com.projecct.bankx_digital_banking_platform.config;
+
+import com.projecct.bankx_digital_banking_platform.common.id.LeasedReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.common.id.NodeIdLease;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReferenceIdConfig {
+
+    // The node id is leased per instance (see NodeIdLease) so ids stay unique across the cluster,
+    // and no ids are issued while the lease holds none
+    @Bean
+    @ConditionalOnMissingBean
+    public ReferenceIdGenerator referenceIdGenerator(NodeIdLease nodeIdLease) {
+        ReferenceIdGenerator generator = new LeasedReferenceIdGenerator(nodeIdLease);
+        // Entities cannot be injected, Transaction falls back to this in @PrePersist
+        Transaction.useReferenceIdGenerator(generator);
+        return generator;
+    }
+}
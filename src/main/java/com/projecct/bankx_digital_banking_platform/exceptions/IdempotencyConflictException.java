@@ -0,0 +1,7 @@
+package com.projecct.bankx_digital_banking_platform.exceptions;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
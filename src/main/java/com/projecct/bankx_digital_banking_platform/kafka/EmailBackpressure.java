@@ -0,0 +1,59 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.notification.EmailDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Pauses the email listener containers while the {@link EmailDispatcher} is close to full and
+ * resumes them once it has drained, with a gap between the two watermarks so they do not flap.
+ * A paused container keeps polling (and its group membership) but fetches nothing, so the lag
+ * builds up in Kafka instead of in memory.
+ */
+@Slf4j
+@Component
+public class EmailBackpressure {
+
+    private static final List<String> LISTENER_IDS =
+            List.of(EmailConsumer.LISTENER_ID, TransactionEmailConsumer.LISTENER_ID);
+
+    private final EmailDispatcher emailDispatcher;
+    private final KafkaListenerEndpointRegistry registry;
+    private final double highWatermark;
+    private final double lowWatermark;
+    private volatile boolean paused;
+
+    public EmailBackpressure(EmailDispatcher emailDispatcher,
+                             KafkaListenerEndpointRegistry registry,
+                             @Value("${app.email.backpressure.high-watermark:0.8}") double highWatermark,
+                             @Value("${app.email.backpressure.low-watermark:0.3}") double lowWatermark) {
+        this.emailDispatcher = emailDispatcher;
+        this.registry = registry;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.backpressure.check-interval-ms:200}")
+    public void adjust() {
+        double utilization = emailDispatcher.utilization();
+        if (!paused && utilization >= highWatermark) {
+            paused = true;
+            containers().forEach(MessageListenerContainer::pause);
+            log.info("Email dispatch at {}% of capacity, pausing email listeners", Math.round(utilization * 100));
+        } else if (paused && utilization <= lowWatermark) {
+            paused = false;
+            containers().forEach(MessageListenerContainer::resume);
+            log.info("Email dispatch drained to {}%, resuming email listeners", Math.round(utilization * 100));
+        }
+    }
+
+    private List<MessageListenerContainer> containers() {
+        return LISTENER_IDS.stream().map(registry::getListenerContainer).filter(c -> c != null).toList();
+    }
+}
@@ -1,36 +1,81 @@
 package com.projecct.bankx_digital_banking_platform.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.projecct.bankx_digital_banking_platform.notification.EmailService;
+import com.projecct.bankx_digital_banking_platform.kafka.event.AccountCreated;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.notification.EmailDispatcher;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+@Slf4j
 @Service
 public class EmailConsumer {
 
-    private final EmailService emailService;
+    public static final String LISTENER_ID = "account-email";
 
-    public EmailConsumer(EmailService emailService) {
-        this.emailService = emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final EventCodec eventCodec;
+    private final ProcessedEventStore processedEvents;
+
+    public EmailConsumer(EmailDispatcher emailDispatcher, EventCodec eventCodec, ProcessedEventStore processedEvents) {
+        this.emailDispatcher = emailDispatcher;
+        this.eventCodec = eventCodec;
+        this.processedEvents = processedEvents;
     }
-    @KafkaListener(topics = "account.events", groupId = "email-service")
-    public void consume(String messageJson) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, String> data = mapper.readValue(messageJson, new TypeReference<Map<String, String>>() {});
-
-        String name = data.get("name");
-        String email = data.get("email");
-        String accountNumber = data.get("accountNumber");
-
-        emailService.sendEmail(
-                email,
-                "Welcome to BankX, " + name,
-                "Your account " + accountNumber + " has been successfully created."
-        );
+
+    // Offsets are committed after the listener returns, i.e. once every mail of the batch was handed to SMTP.
+    // A failed mail fails the batch from its record on, see FailedSends.
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "account.events", groupId = "email-service",
+            batch = "true", concurrency = "${app.email.consumer.concurrency:3}")
+    public void consume(List<String> messages) throws InterruptedException {
+        Map<String, AccountCreated> byAccount = new LinkedHashMap<>();
+        Map<String, Integer> recordIndex = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                AccountCreated event = eventCodec.readAccountCreated(messages.get(i));
+                String accountId = String.valueOf(event.accountId());
+                if (byAccount.putIfAbsent(accountId, event) == null) {
+                    recordIndex.put(accountId, i);
+                }
+            } catch (IllegalArgumentException e) {
+                // Failing the batch would only redeliver (and re-mail) the good records with it
+                log.warn("Skipping unreadable account event: {}", e.getMessage());
+            }
+        }
+        // Redelivered after a rebalance: the welcome mail already went out
+        byAccount.keySet().removeAll(processedEvents.findProcessed(LISTENER_ID, byAccount.keySet()));
+
+        Map<String, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+        for (Map.Entry<String, AccountCreated> entry : byAccount.entrySet()) {
+            AccountCreated event = entry.getValue();
+            sends.put(entry.getKey(), emailDispatcher.dispatch(
+                    event.email(),
+                    "Welcome to BankX, " + event.name(),
+                    "Your account " + event.accountNumber() + " has been successfully created."
+            ));
+        }
+        emailDispatcher.awaitAll(List.copyOf(sends.values()));
+
+        List<String> sent = new ArrayList<>(sends.size());
+        sends.forEach((accountId, send) -> {
+            if (!send.isCompletedExceptionally()) {
+                sent.add(accountId);
+            }
+        });
+        processedEvents.markProcessed(LISTENER_ID, sent);
+
+        BatchListenerFailedException failure = FailedSends.first("Welcome mail for account", sends, recordIndex);
+        if (failure != null) {
+            throw failure;
+        }
     }
 
 }
@@ -0,0 +1,43 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Turns failed mail sends of a consumed batch into the exception that makes the listener
+ * container redeliver from the first of them: the default error handler commits the records
+ * before that index and seeks back to it, with backoff. Records after it whose mail did go out
+ * are marked processed before this is thrown, so the redelivery skips them.
+ */
+final class FailedSends {
+
+    private FailedSends() {
+    }
+
+    // Null when every send succeeded; sends are keyed like recordIndex, the index of the key's first record in the batch
+    static BatchListenerFailedException first(String what, Map<String, CompletableFuture<Void>> sends,
+                                              Map<String, Integer> recordIndex) {
+        String first = null;
+        for (Map.Entry<String, CompletableFuture<Void>> entry : sends.entrySet()) {
+            if (entry.getValue().isCompletedExceptionally()
+                    && (first == null || recordIndex.get(entry.getKey()) < recordIndex.get(first))) {
+                first = entry.getKey();
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+        Throwable cause;
+        try {
+            sends.get(first).join();
+            cause = null;
+        } catch (CompletionException | CancellationException e) {
+            cause = e.getCause() != null ? e.getCause() : e;
+        }
+        return new BatchListenerFailedException(what + " " + first + " failed", cause, recordIndex.get(first));
+    }
+}
@@ -0,0 +1,63 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEventArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps outbox_events down to the PENDING backlog plus recently sent rows. Sent events older than
+ * the retention window are moved to outbox_events_archive in batches, each batch a single
+ * DELETE ... RETURNING / INSERT statement, so the relay's scan cost does not grow with history.
+ * Rows are picked with SKIP LOCKED, several instances can run the job at the same time.
+ * The archive table is mapped by {@link OutboxEventArchive} and the sent_at index is created by
+ * {@link OutboxIndexInitializer}, so the job also works on a schema built without migrations.
+ */
+@Slf4j
+@Component
+public class OutboxArchiver {
+
+    private static final String MOVE_BATCH =
+            "WITH moved AS (" +
+            "  DELETE FROM outbox_events WHERE id IN (" +
+            "    SELECT id FROM outbox_events WHERE status = ? AND sent_at < ? " +
+            "    ORDER BY sent_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "  RETURNING id, aggregate_type, aggregate_id, event_key, type, payload, status, attempts, last_error, created_at, sent_at) " +
+            "INSERT INTO outbox_events_archive (id, aggregate_type, aggregate_id, event_key, type, payload, status, attempts, last_error, created_at, sent_at) " +
+            "SELECT id, aggregate_type, aggregate_id, event_key, type, payload, status, attempts, last_error, created_at, sent_at FROM moved " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public OutboxArchiver(JdbcTemplate jdbcTemplate,
+                          @Value("${app.outbox.archive.retention-hours:24}") long retentionHours,
+                          @Value("${app.outbox.archive.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = Duration.ofHours(retentionHours);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.archive.interval-ms:60000}")
+    public void archiveSent() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long total = 0;
+        int moved;
+        // Each statement commits on its own, a long backlog never turns into one huge transaction
+        do {
+            moved = jdbcTemplate.update(MOVE_BATCH, OutboxEvent.Status.SUCCESS.name(), cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} sent outbox events older than {}", total, cutoff);
+        }
+    }
+}
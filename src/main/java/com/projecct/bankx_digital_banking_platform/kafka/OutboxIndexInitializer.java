@@ -0,0 +1,46 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the partial indexes and storage settings of outbox_events that V15/V16/V23 add, which JPA
+ * mappings cannot express, so a schema built by ddl-auto gets them too. Every statement is a
+ * no-op once the object exists. Indexes are built CONCURRENTLY so a large outbox keeps taking
+ * writes meanwhile; a failure is logged and the relay simply runs without that index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxIndexInitializer implements CommandLineRunner {
+
+    static final List<String> STATEMENTS = List.of(
+            // The relay only ever scans PENDING rows in id order
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_events_pending ON outbox_events (id) WHERE status = 'PENDING'",
+            // Sent rows waiting for OutboxArchiver, ordered by age
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_events_sent_at ON outbox_events (sent_at) WHERE status = 'SUCCESS'",
+            // RETRY rows by due time, for OutboxRetryScheduler's sweep
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_events_retry ON outbox_events (next_attempt_at) WHERE status = 'RETRY'",
+            // IN_FLIGHT claims by deadline, for the relay's expired-claim sweep
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_events_in_flight ON outbox_events (claimed_until) WHERE status = 'IN_FLIGHT'",
+            "ALTER TABLE outbox_events SET (autovacuum_vacuum_scale_factor = 0.01, autovacuum_analyze_scale_factor = 0.02)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        // Auto-commit statements, CREATE INDEX CONCURRENTLY cannot run inside a transaction
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply outbox schema statement [{}]: {}", statement, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox backlog gauges. The counts come from the partial status indexes and are refreshed on a
+ * schedule rather than on every scrape, so a busy metrics endpoint cannot add database load.
+ */
+@Component
+public class OutboxMetrics {
+
+    private final OutboxRepo outboxRepo;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong retrying = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    public OutboxMetrics(OutboxRepo outboxRepo, MeterRegistry meterRegistry) {
+        this.outboxRepo = outboxRepo;
+        Gauge.builder("bankx.outbox.backlog", pending, AtomicLong::get)
+                .tag("status", "pending").register(meterRegistry);
+        Gauge.builder("bankx.outbox.backlog", retrying, AtomicLong::get)
+                .tag("status", "retry").register(meterRegistry);
+        Gauge.builder("bankx.outbox.backlog", deadLettered, AtomicLong::get)
+                .tag("status", "dead_letter").register(meterRegistry);
+        Gauge.builder("bankx.outbox.oldest.pending.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.metrics-interval-ms:15000}")
+    public void refresh() {
+        pending.set(outboxRepo.countByStatus(OutboxEvent.Status.PENDING));
+        retrying.set(outboxRepo.countByStatus(OutboxEvent.Status.RETRY));
+        deadLettered.set(outboxRepo.countByStatus(OutboxEvent.Status.DEAD_LETTER));
+        oldestPendingAgeSeconds.set(outboxRepo.findFirstByStatusOrderByIdAsc(OutboxEvent.Status.PENDING)
+                .map(e -> Duration.between(e.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                .orElse(0L));
+    }
+}
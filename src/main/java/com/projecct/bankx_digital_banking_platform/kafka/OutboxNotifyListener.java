@@ -0,0 +1,109 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cross-node outbox wake-up over Postgres LISTEN/NOTIFY, for setups where the relay of another
+ * instance should pick up rows written here right away. Holds one pooled connection for LISTEN.
+ * Outgoing NOTIFYs are coalesced: a burst of commits results in a single pg_notify.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.notify.enabled", havingValue = "true")
+public class OutboxNotifyListener {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxSignal signal;
+    private final String channel;
+    private final Thread listener;
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-notify");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean notifyPending = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    public OutboxNotifyListener(DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                OutboxSignal signal,
+                                @Value("${app.outbox.notify.channel:outbox_events}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid outbox notify channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.signal = signal;
+        this.channel = channel;
+        this.listener = new Thread(this::listen, "outbox-listen");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    public void notifyOtherNodes() {
+        if (notifyPending.compareAndSet(false, true)) {
+            notifier.execute(() -> {
+                notifyPending.set(false);
+                try {
+                    jdbcTemplate.queryForObject("SELECT pg_notify(?, '')", Object.class, channel);
+                } catch (RuntimeException e) {
+                    log.warn("Outbox NOTIFY failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        notifier.shutdown();
+        listener.interrupt();
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                log.info("Listening for outbox notifications on channel {}", channel);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null && notifications.length > 0) {
+                        signal.wake();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox LISTEN connection lost, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes outbox events to Kafka, keyed by the event key (account id) so all events of an
+ * account land on one partition in order.
+ * <p>
+ * Events are split into lanes by a hash of their key, and different lanes are drained by the
+ * worker threads in parallel. A batch is claimed in a short transaction: under the lane's
+ * transaction-scoped advisory lock the oldest claimable rows are marked IN_FLIGHT with a claim
+ * deadline (claim-timeout-ms), and the transaction commits before anything is sent. The batch is
+ * then sent asynchronously in id order: different keys are in flight together, events of one key
+ * are chained so the next is only sent once the previous one was acknowledged. Once all sends have
+ * completed (or the send timeout has passed) the outcome is written in a second short transaction:
+ * sent rows with one UPDATE, failed rows go to RETRY with a backoff handled by the
+ * {@link OutboxRetryScheduler}, or to DEAD_LETTER (and the {@code <topic>.DLT} topic) once they
+ * ran out of attempts. A claim whose outcome never gets written (the instance died) goes back to
+ * PENDING once its deadline has passed.
+ * <p>
+ * A failure stops its key: the events behind it in the batch are never sent and go back to
+ * PENDING, and the claim skips every key that has an older IN_FLIGHT or RETRY row, so nothing
+ * overtakes an event that is still being sent or waiting for its retry. A DEAD_LETTER event no
+ * longer holds its key back.
+ * <p>
+ * Idle workers wait on the {@link OutboxSignal}, which fires right after a transaction with new
+ * outbox rows commits. Polling is only the fallback: the idle wait starts at poll-interval-ms and
+ * doubles up to max-poll-interval-ms while nothing turns up.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // First key of the two-int advisory lock, keeps lane locks apart from any other advisory lock
+    private static final int LANE_LOCK_NAMESPACE = 0x0B0C;
+
+    private final OutboxRepo outboxRepo;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxRoutingProperties routing;
+    private final int lanes;
+    private final int batchSize;
+    private final OutboxSignal signal;
+    private final OutboxRetryScheduler retryScheduler;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadLetterCounter;
+    private final long pollIntervalMs;
+    private final long maxPollIntervalMs;
+    private final long sendTimeoutMs;
+    private final long claimTimeoutMs;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public OutboxRelay(OutboxRepo outboxRepo,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       OutboxRoutingProperties routing,
+                       OutboxSignal signal,
+                       OutboxRetryScheduler retryScheduler,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.workers:2}") int workerCount,
+                       @Value("${app.outbox.lanes:16}") int lanes,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.poll-interval-ms:50}") long pollIntervalMs,
+                       @Value("${app.outbox.max-poll-interval-ms:5000}") long maxPollIntervalMs,
+                       @Value("${app.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${app.outbox.claim-timeout-ms:60000}") long claimTimeoutMs) {
+        if (claimTimeoutMs <= sendTimeoutMs) {
+            throw new IllegalArgumentException("app.outbox.claim-timeout-ms must be longer than app.outbox.send-timeout-ms");
+        }
+        this.outboxRepo = outboxRepo;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.routing = routing;
+        this.lanes = lanes;
+        this.batchSize = batchSize;
+        this.signal = signal;
+        this.retryScheduler = retryScheduler;
+        this.sentCounter = meterRegistry.counter("bankx.outbox.sent");
+        this.failedCounter = meterRegistry.counter("bankx.outbox.send.failures");
+        this.deadLetterCounter = meterRegistry.counter("bankx.outbox.dead.lettered");
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxPollIntervalMs = maxPollIntervalMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        for (int i = 0; i < workerCount; i++) {
+            int firstLane = i * lanes / workerCount;
+            Thread worker = new Thread(() -> run(firstLane), "outbox-relay-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run(int firstLane) {
+        long idleWait = pollIntervalMs;
+        while (running) {
+            try {
+                long seen = signal.generation();
+                // Keep sweeping the lanes while there is a backlog
+                if (outboxRepo.existsByStatus(OutboxEvent.Status.PENDING) && sweep(firstLane) > 0) {
+                    idleWait = pollIntervalMs;
+                    continue;
+                }
+                boolean woken = signal.awaitWake(seen, idleWait);
+                idleWait = woken ? pollIntervalMs : Math.min(idleWait * 2, maxPollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Outbox relay sweep failed", e);
+                try {
+                    Thread.sleep(idleWait);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    // Workers start at different lanes so they rarely race for the same lock
+    private int sweep(int firstLane) {
+        int relayed = 0;
+        for (int i = 0; i < lanes && running; i++) {
+            relayed += relayLane((firstLane + i) % lanes);
+        }
+        return relayed;
+    }
+
+    int relayLane(int lane) {
+        // The deadline doubles as the claim's identity: outcomes are only written while the rows still carry it
+        LocalDateTime claimedUntil = LocalDateTime.now().plus(Duration.ofMillis(claimTimeoutMs)).truncatedTo(ChronoUnit.MICROS);
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claim(lane, claimedUntil));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // No transaction, row lock or connection is held while the sends are in flight
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        Map<String, CompletableFuture<Void>> lastSendOfKey = new HashMap<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        for (OutboxEvent event : batch) {
+            CompletableFuture<Void> send = sendAfter(lastSendOfKey.get(keyOf(event)), event, closed);
+            lastSendOfKey.put(keyOf(event), send);
+            sends.add(send);
+        }
+        awaitAll(sends);
+        // Chained sends that have not started by now never will. Their rows go back to PENDING behind the
+        // failed event of their key
+        closed.set(true);
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<Long> heldBack = new ArrayList<>();
+        List<OutboxEvent> retries = new ArrayList<>();
+        List<OutboxEvent> deadLetters = new ArrayList<>();
+        Set<String> stoppedKeys = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (stoppedKeys.contains(keyOf(event))) {
+                event.setStatus(OutboxEvent.Status.PENDING);
+                heldBack.add(event.getId());
+                continue;
+            }
+            String error = failureOf(sends.get(i));
+            if (error == null) {
+                event.setStatus(OutboxEvent.Status.SUCCESS);
+                sent.add(event.getId());
+                continue;
+            }
+            stoppedKeys.add(keyOf(event));
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error);
+            if (retryScheduler.exhausted(event.getAttempts())) {
+                event.setStatus(OutboxEvent.Status.DEAD_LETTER);
+                event.setNextAttemptAt(null);
+                deadLetters.add(event);
+            } else {
+                event.setStatus(OutboxEvent.Status.RETRY);
+                event.setNextAttemptAt(now.plus(Duration.ofMillis(retryScheduler.backoffMs(event.getAttempts()))));
+                retries.add(event);
+            }
+        }
+
+        transactionTemplate.execute(status -> {
+            if (!sent.isEmpty()) {
+                outboxRepo.finishClaim(sent, OutboxEvent.Status.SUCCESS, now, claimedUntil);
+            }
+            if (!heldBack.isEmpty()) {
+                outboxRepo.finishClaim(heldBack, OutboxEvent.Status.PENDING, null, claimedUntil);
+            }
+            // At most one failure per key, usually none
+            for (OutboxEvent event : retries) {
+                markFailed(event, claimedUntil);
+            }
+            for (OutboxEvent event : deadLetters) {
+                markFailed(event, claimedUntil);
+            }
+            return null;
+        });
+        log.debug("Relayed {} outbox events from lane {} ({} retried, {} dead, {} held back)", sent.size(), lane,
+                retries.size(), deadLetters.size(), heldBack.size());
+        sentCounter.increment(sent.size());
+        failedCounter.increment(retries.size() + deadLetters.size());
+        for (OutboxEvent event : retries) {
+            retryScheduler.schedule(event.getId(), Duration.between(LocalDateTime.now(), event.getNextAttemptAt()).toMillis());
+        }
+        for (OutboxEvent event : deadLetters) {
+            deadLetter(event);
+        }
+        if (!heldBack.isEmpty()) {
+            signal.wake();
+        }
+        return sent.size() + retries.size() + deadLetters.size();
+    }
+
+    // Short transaction: the lane lock only serialises claiming, the claimed rows are IN_FLIGHT once it commits
+    private List<OutboxEvent> claim(int lane, LocalDateTime claimedUntil) {
+        if (!outboxRepo.tryLockLane(LANE_LOCK_NAMESPACE, lane)) {
+            return List.of();
+        }
+        List<OutboxEvent> batch = outboxRepo.claimLane(lane, lanes, batchSize);
+        for (OutboxEvent event : batch) {
+            // Claimed entities are managed, these changes are flushed as one JDBC batch on commit
+            event.setStatus(OutboxEvent.Status.IN_FLIGHT);
+            event.setClaimedUntil(claimedUntil);
+        }
+        return batch;
+    }
+
+    private void markFailed(OutboxEvent event, LocalDateTime claimedUntil) {
+        outboxRepo.markFailed(event.getId(), event.getStatus(), event.getAttempts(), event.getLastError(),
+                event.getNextAttemptAt(), claimedUntil);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.claim-sweep-interval-ms:15000}")
+    public void releaseExpiredClaims() {
+        int released = outboxRepo.releaseExpiredClaims(LocalDateTime.now());
+        if (released > 0) {
+            log.warn("Released {} outbox events whose claim expired before their outcome was written", released);
+            signal.wake();
+        }
+    }
+
+    // Best effort, the DEAD_LETTER row in outbox_events is the record that counts
+    private void deadLetter(OutboxEvent event) {
+        deadLetterCounter.increment();
+        log.error("Outbox event {} dead-lettered after {} attempts: {}", event.getId(), event.getAttempts(), event.getLastError());
+        try {
+            ProducerRecord<String, String> original = record(event);
+            ProducerRecord<String, String> record = new ProducerRecord<>(original.topic() + ".DLT", null,
+                    original.key(), original.value(), original.headers());
+            record.headers().add(header("attempts", String.valueOf(event.getAttempts())));
+            record.headers().add(header("lastError", event.getLastError()));
+            kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish outbox event {} to the dead-letter topic: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    // Sent once the previous event of the same key was acknowledged, held back when that one failed
+    private CompletableFuture<Void> sendAfter(CompletableFuture<Void> previous, OutboxEvent event, AtomicBoolean closed) {
+        if (previous == null) {
+            return send(event);
+        }
+        return previous.handle((result, error) -> error == null && !closed.get())
+                .thenCompose(go -> go ? send(event)
+                        : CompletableFuture.failedFuture(new CancellationException("Held back behind event of the same key")));
+    }
+
+    // Null when the send succeeded
+    private String failureOf(CompletableFuture<?> send) {
+        if (!send.isDone()) {
+            return "Send timed out after " + sendTimeoutMs + " ms";
+        }
+        try {
+            send.getNow(null);
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            return message.length() > 2000 ? message.substring(0, 2000) : message;
+        }
+    }
+
+    private CompletableFuture<Void> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(record(event))
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to publish outbox event {}: {}", event.getId(), error.getMessage());
+                        }
+                    })
+                    .thenAccept(result -> {
+                    });
+        } catch (RuntimeException e) {
+            // send() itself throws when the producer cannot even queue the record (e.g. metadata timeout)
+            log.warn("Failed to publish outbox event {}: {}", event.getId(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ProducerRecord<String, String> record(OutboxEvent event) {
+        OutboxRoutingProperties.Route route = routing.routeFor(event.getAggregateType());
+        String topic = route != null && route.topic() != null
+                ? route.topic()
+                : event.getAggregateType().toLowerCase() + ".events";
+        Integer partition = route != null ? route.partition() : null;
+        String key = keyOf(event);
+
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, partition, key, event.getPayload());
+        record.headers().add(header("eventId", String.valueOf(event.getId())));
+        record.headers().add(header("eventType", event.getType()));
+        record.headers().add(header("aggregateId", event.getAggregateId()));
+        return record;
+    }
+
+    private static String keyOf(OutboxEvent event) {
+        return event.getEventKey() != null ? event.getEventKey() : event.getAggregateId();
+    }
+
+    private RecordHeader header(String name, String value) {
+        return new RecordHeader(name, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private void awaitAll(List<CompletableFuture<Void>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Outcome is read per future by the caller, sends still in flight count as failed
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings RETRY outbox events back to PENDING once their backoff has elapsed. Retries scheduled
+ * by this instance sit in a {@link DelayQueue}, so a waiting retry costs no query at all; the
+ * thread only wakes when the earliest one is due and releases everything due in one UPDATE.
+ * A slow sweep over the next_attempt_at index covers retries the queue does not know about
+ * (restarts, other instances, queue over its cap).
+ */
+@Slf4j
+@Component
+public class OutboxRetryScheduler {
+
+    private static final int RELEASE_BATCH = 1000;
+
+    private final OutboxRepo outboxRepo;
+    private final OutboxSignal signal;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxTracked;
+    private final DelayQueue<DueRetry> queue = new DelayQueue<>();
+    private final Counter released;
+    private final Thread releaser;
+    private volatile boolean running = true;
+
+    public OutboxRetryScheduler(OutboxRepo outboxRepo,
+                                OutboxSignal signal,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.outbox.retry.max-attempts:8}") int maxAttempts,
+                                @Value("${app.outbox.retry.initial-backoff-ms:1000}") long initialBackoffMs,
+                                @Value("${app.outbox.retry.max-backoff-ms:600000}") long maxBackoffMs,
+                                @Value("${app.outbox.retry.max-tracked:100000}") int maxTracked) {
+        this.outboxRepo = outboxRepo;
+        this.signal = signal;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxTracked = maxTracked;
+        this.released = meterRegistry.counter("bankx.outbox.retries.released");
+        meterRegistry.gauge("bankx.outbox.retries.scheduled", queue, DelayQueue::size);
+        this.releaser = new Thread(this::run, "outbox-retry");
+        this.releaser.setDaemon(true);
+        this.releaser.start();
+    }
+
+    public boolean exhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+
+    // Exponential backoff with jitter, attempts counts the failures so far (1 after the first)
+    public long backoffMs(int attempts) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    // Call once the RETRY status is committed, otherwise the release finds nothing to do
+    public void schedule(long eventId, long delayMs) {
+        if (queue.size() < maxTracked) {
+            queue.add(new DueRetry(eventId, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.retry.sweep-interval-ms:60000}")
+    public void releaseDue() {
+        int count = outboxRepo.releaseDueRetries(LocalDateTime.now());
+        if (count > 0) {
+            released.increment(count);
+            log.info("Released {} due outbox retries", count);
+            signal.wake();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        releaser.interrupt();
+        releaser.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        List<DueRetry> due = new ArrayList<>(RELEASE_BATCH);
+        while (running) {
+            try {
+                due.add(queue.take());
+                queue.drainTo(due, RELEASE_BATCH - 1);
+                int count = outboxRepo.releaseRetries(due.stream().map(DueRetry::eventId).toList());
+                if (count > 0) {
+                    released.increment(count);
+                    signal.wake();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // The sweep releases these later
+                log.warn("Releasing {} outbox retries failed: {}", due.size(), e.getMessage());
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    private record DueRetry(long eventId, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((DueRetry) other).dueNanos);
+        }
+    }
+}
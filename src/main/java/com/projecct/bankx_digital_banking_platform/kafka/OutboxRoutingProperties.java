@@ -0,0 +1,34 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per aggregate type routing of outbox events, e.g.
+ * {@code app.outbox.routing.transaction.topic=transaction.events}. Aggregate types are matched
+ * case-insensitively. Without a route an event goes to {@code <aggregatetype>.events} and the
+ * partition is picked by the producer from the record key.
+ */
+@ConfigurationProperties(prefix = "app.outbox")
+public record OutboxRoutingProperties(Map<String, Route> routing) {
+
+    public OutboxRoutingProperties {
+        // Relaxed binding lowercases map keys anyway, normalise so lookups do not depend on it
+        Map<String, Route> normalized = new HashMap<>();
+        if (routing != null) {
+            routing.forEach((type, route) -> normalized.put(type.toLowerCase(Locale.ROOT), route));
+        }
+        routing = Map.copyOf(normalized);
+    }
+
+    public Route routeFor(String aggregateType) {
+        return aggregateType != null ? routing.get(aggregateType.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    // partition pins every event of the type to one partition, leave it unset to partition by key
+    public record Route(String topic, Integer partition) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEventsWritten;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Wakes idle outbox relay workers. Raised in-process after every transaction that wrote outbox
+ * rows commits, and by {@link OutboxNotifyListener} when another node announced new rows.
+ * Workers wait on a generation counter, so a wake-up that arrives between a sweep and the next
+ * wait is never lost.
+ */
+@Component
+public class OutboxSignal {
+
+    private final Object monitor = new Object();
+    private final ObjectProvider<OutboxNotifyListener> notifyListener;
+    private long generation;
+
+    public OutboxSignal(ObjectProvider<OutboxNotifyListener> notifyListener) {
+        this.notifyListener = notifyListener;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOutboxEventsWritten(OutboxEventsWritten event) {
+        wake();
+        notifyListener.ifAvailable(OutboxNotifyListener::notifyOtherNodes);
+    }
+
+    public void wake() {
+        synchronized (monitor) {
+            generation++;
+            monitor.notifyAll();
+        }
+    }
+
+    public long generation() {
+        synchronized (monitor) {
+            return generation;
+        }
+    }
+
+    // Returns true when woken after the given generation was read, false on timeout
+    public boolean awaitWake(long seenGeneration, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (monitor) {
+            while (generation == seenGeneration) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                monitor.wait(remaining);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Mapped so the schema exists without migrations; reads and writes go through ProcessedEventStore
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ProcessedEvent.Key.class)
+@Table(name = "processed_events", indexes = @Index(name = "idx_processed_events_processed_at", columnList = "processed_at"))
+public class ProcessedEvent {
+
+    @Id
+    @Column(length = 64)
+    private String consumer;
+
+    @Id
+    private String aggregateId;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt = LocalDateTime.now();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String consumer;
+        private String aggregateId;
+    }
+}
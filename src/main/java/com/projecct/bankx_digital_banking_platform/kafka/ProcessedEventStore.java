@@ -0,0 +1,116 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which aggregates a consumer has already handled, so records redelivered after a
+ * rebalance are skipped instead of repeating their side effects. Recently seen ids are answered
+ * from a per-consumer LRU; the rest cost one indexed query per poll batch, never one per record.
+ * Ids are recorded once per batch, after the side effects, in a single insert.
+ */
+@Slf4j
+@Component
+public class ProcessedEventStore {
+
+    private static final String FIND_PROCESSED =
+            "SELECT aggregate_id FROM processed_events WHERE consumer = ? AND aggregate_id = ANY (?)";
+    private static final String MARK_PROCESSED =
+            "INSERT INTO processed_events (consumer, aggregate_id, processed_at) " +
+            "SELECT ?, unnest(?), now() ON CONFLICT DO NOTHING";
+    private static final String PURGE =
+            "DELETE FROM processed_events WHERE processed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int cacheSize;
+    private final Duration retention;
+    private final Map<String, Set<String>> recent = new ConcurrentHashMap<>();
+
+    public ProcessedEventStore(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.consumer.dedup.cache-size:100000}") int cacheSize,
+                               @Value("${app.consumer.dedup.retention-hours:168}") long retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cacheSize = cacheSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    // The subset of aggregateIds the consumer has already processed
+    public Set<String> findProcessed(String consumer, Collection<String> aggregateIds) {
+        if (aggregateIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> cache = recent(consumer);
+        Set<String> processed = new HashSet<>();
+        List<String> unknown = new ArrayList<>(aggregateIds.size());
+        for (String id : aggregateIds) {
+            if (cache.contains(id)) {
+                processed.add(id);
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            List<String> stored = jdbcTemplate.query(FIND_PROCESSED,
+                    ps -> {
+                        ps.setString(1, consumer);
+                        ps.setArray(2, ps.getConnection().createArrayOf("varchar", unknown.toArray()));
+                    },
+                    (rs, rowNum) -> rs.getString(1));
+            cache.addAll(stored);
+            processed.addAll(stored);
+        }
+        if (!processed.isEmpty()) {
+            meterRegistry.counter("bankx.consumer.duplicates", "consumer", consumer).increment(processed.size());
+        }
+        return processed;
+    }
+
+    public void markProcessed(String consumer, Collection<String> aggregateIds) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MARK_PROCESSED, ps -> {
+            ps.setString(1, consumer);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", aggregateIds.toArray()));
+        });
+        recent(consumer).addAll(aggregateIds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.consumer.dedup.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            log.info("Purged {} processed event ids older than {}", purged, retention);
+        }
+    }
+
+    private Set<String> recent(String consumer) {
+        return recent.computeIfAbsent(consumer, c -> Collections.synchronizedSet(Collections.newSetFromMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > cacheSize;
+                    }
+                })));
+    }
+}
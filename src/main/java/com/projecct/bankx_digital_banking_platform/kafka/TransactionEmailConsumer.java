@@ -1,37 +1,152 @@
 package com.projecct.bankx_digital_banking_platform.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.projecct.bankx_digital_banking_platform.notification.EmailService;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountOwnerContact;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.kafka.event.TransactionPosted;
+import com.projecct.bankx_digital_banking_platform.notification.EmailDispatcher;
+import com.projecct.bankx_digital_banking_platform.notification.NotificationCoalescer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class TransactionEmailConsumer {
 
-    private final EmailService emailService;
+    public static final String LISTENER_ID = "transaction-email";
 
-    public TransactionEmailConsumer(EmailService emailService) {
-        this.emailService = emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final EventCodec eventCodec;
+    private final AccountRepo accountRepo;
+    private final NotificationCoalescer coalescer;
+    private final ProcessedEventStore processedEvents;
+    private final boolean digestEnabled;
+
+    public TransactionEmailConsumer(EmailDispatcher emailDispatcher,
+                                    EventCodec eventCodec,
+                                    AccountRepo accountRepo,
+                                    NotificationCoalescer coalescer,
+                                    ProcessedEventStore processedEvents,
+                                    @Value("${app.email.digest.enabled:true}") boolean digestEnabled) {
+        this.emailDispatcher = emailDispatcher;
+        this.eventCodec = eventCodec;
+        this.accountRepo = accountRepo;
+        this.coalescer = coalescer;
+        this.processedEvents = processedEvents;
+        this.digestEnabled = digestEnabled;
+    }
+
+    // Offsets are committed after the listener returns: once every mail of the batch was handed to SMTP,
+    // a failed one fails the batch from its record on (see FailedSends). In digest mode once the alerts are
+    // buffered; they are marked processed when their digest went out, and only logged if it never does.
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "transaction.events", groupId = "email-service",
+            batch = "true", concurrency = "${app.email.consumer.concurrency:3}")
+    public void consumeTransactions(List<String> messages) throws InterruptedException {
+        Map<String, TransactionPosted> byReference = new LinkedHashMap<>();
+        Map<String, Integer> recordIndex = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                TransactionPosted event = eventCodec.readTransactionPosted(messages.get(i));
+                // The alert is sent from the initiating account's event; the counterparty's event of the same
+                // posting is left unmarked, it shares the reference id
+                if (!event.initiatingLeg()) {
+                    continue;
+                }
+                if (byReference.putIfAbsent(event.referenceId(), event) == null) {
+                    recordIndex.put(event.referenceId(), i);
+                }
+            } catch (IllegalArgumentException e) {
+                // Failing the batch would only redeliver (and re-mail) the good records with it
+                log.warn("Skipping unreadable transaction event: {}", e.getMessage());
+            }
+        }
+        // Redelivered after a rebalance: the alert already went out
+        byReference.keySet().removeAll(processedEvents.findProcessed(LISTENER_ID, byReference.keySet()));
+        Collection<TransactionPosted> events = byReference.values();
+
+        // One lookup for all recipients of the batch
+        Set<Integer> accountIds = new HashSet<>();
+        events.forEach(event -> {
+            Integer accountId = recipientAccountId(event);
+            if (accountId != null) {
+                accountIds.add(accountId);
+            }
+        });
+        Map<Integer, AccountOwnerContact> owners = accountIds.isEmpty() ? Map.of()
+                : accountRepo.findOwnerContactsByIds(accountIds).stream()
+                        .collect(Collectors.toMap(AccountOwnerContact::getAccountId, Function.identity()));
+
+        List<String> handled = new ArrayList<>(events.size());
+        Map<String, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Void>> buffered = new LinkedHashMap<>();
+        for (TransactionPosted event : events) {
+            AccountOwnerContact owner = owners.get(recipientAccountId(event));
+            if (owner == null || owner.getEmail() == null) {
+                log.debug("No recipient for transaction {}, skipping alert", event.referenceId());
+                handled.add(event.referenceId());
+                continue;
+            }
+            String text = "A transaction of " + event.amount() + " has been made from account " + event.fromAccountId() +
+                    " to account " + event.toAccountId() + ".";
+            if (digestEnabled) {
+                buffered.put(event.referenceId(), coalescer.add(owner.getEmail(), text));
+            } else {
+                sends.put(event.referenceId(), emailDispatcher.dispatch(owner.getEmail(), "Transaction Alert", text));
+            }
+        }
+        emailDispatcher.awaitAll(List.copyOf(sends.values()));
+        sends.forEach((referenceId, send) -> {
+            if (!send.isCompletedExceptionally()) {
+                handled.add(referenceId);
+            }
+        });
+        processedEvents.markProcessed(LISTENER_ID, handled);
+        if (!buffered.isEmpty()) {
+            markWhenDelivered(buffered);
+        }
+
+        BatchListenerFailedException failure = FailedSends.first("Alert for transaction", sends, recordIndex);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // One insert for the batch's buffered alerts, once the last of their digests went out or was given up on
+    private void markWhenDelivered(Map<String, CompletableFuture<Void>> buffered) {
+        CompletableFuture.allOf(buffered.values().toArray(CompletableFuture[]::new)).whenComplete((result, error) -> {
+            List<String> delivered = new ArrayList<>(buffered.size());
+            buffered.forEach((referenceId, alert) -> {
+                if (alert.isCompletedExceptionally()) {
+                    log.error("Alert for transaction {} was not sent", referenceId);
+                } else {
+                    delivered.add(referenceId);
+                }
+            });
+            try {
+                processedEvents.markProcessed(LISTENER_ID, delivered);
+            } catch (RuntimeException e) {
+                log.warn("Could not mark {} delivered alerts processed: {}", delivered.size(), e.getMessage());
+            }
+        });
     }
 
-    @KafkaListener(topics = "transaction.events", groupId = "email-service")
-    public void consumeTransaction(String messageJson) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, String> data = mapper.readValue(messageJson, new TypeReference<Map<String, String>>() {});
-
-        String fromAccount = data.get("fromAccount");
-        String toAccount = data.get("toAccount");
-        String amount = data.get("amount");
-
-        emailService.sendEmail(
-                data.get("email"), // recipient email
-                "Transaction Alert",
-                "A transaction of " + amount + " has been made from account " + fromAccount +
-                        " to account " + toAccount + "."
-        );
+    // The alert goes to the owner of the initiating account (the record key)
+    private Integer recipientAccountId(TransactionPosted event) {
+        return event.initiatingAccountId();
     }
 }
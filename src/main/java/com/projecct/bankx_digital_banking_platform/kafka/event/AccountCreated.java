@@ -0,0 +1,15 @@
+package com.projecct.bankx_digital_banking_platform.kafka.event;
+
+// Payload of the account.events topic
+public record AccountCreated(int v,
+                             Integer accountId,
+                             String accountNumber,
+                             String name,
+                             String email) {
+
+    public static final int VERSION = 1;
+
+    public AccountCreated(Integer accountId, String accountNumber, String name, String email) {
+        this(VERSION, accountId, accountNumber, name, email);
+    }
+}
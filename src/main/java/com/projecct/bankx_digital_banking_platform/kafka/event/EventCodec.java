@@ -0,0 +1,73 @@
+package com.projecct.bankx_digital_banking_platform.kafka.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared JSON codec for outbox event payloads. Readers and writers are built once per event type
+ * and are thread-safe, so neither producers nor consumers construct a mapper per message.
+ * <p>
+ * Every payload carries its schema version in {@code v}. Unknown fields are ignored on read, so
+ * a producer may add fields without a lockstep consumer release; anything incompatible needs a
+ * new version.
+ */
+@Component
+public class EventCodec {
+
+    private final ObjectWriter transactionPostedWriter;
+    private final ObjectReader transactionPostedReader;
+    private final ObjectWriter accountCreatedWriter;
+    private final ObjectReader accountCreatedReader;
+
+    public EventCodec() {
+        JsonMapper mapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+        this.transactionPostedWriter = mapper.writerFor(TransactionPosted.class);
+        this.transactionPostedReader = mapper.readerFor(TransactionPosted.class);
+        this.accountCreatedWriter = mapper.writerFor(AccountCreated.class);
+        this.accountCreatedReader = mapper.readerFor(AccountCreated.class);
+    }
+
+    public String write(TransactionPosted event) {
+        return write(transactionPostedWriter, event);
+    }
+
+    public String write(AccountCreated event) {
+        return write(accountCreatedWriter, event);
+    }
+
+    public TransactionPosted readTransactionPosted(String payload) {
+        return read(transactionPostedReader, payload);
+    }
+
+    public AccountCreated readAccountCreated(String payload) {
+        return read(accountCreatedReader, payload);
+    }
+
+    private String write(ObjectWriter writer, Object event) {
+        try {
+            return writer.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T read(ObjectReader reader, String payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed event payload: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.projecct.bankx_digital_banking_platform.kafka.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Payload of the transaction.events topic, one per account a successful posting touched, keyed by accountId.
+// accountId is null in version 1 payloads, which were only written for the initiating account.
+public record TransactionPosted(int v,
+                                String referenceId,
+                                String type,
+                                Integer fromAccountId,
+                                Integer toAccountId,
+                                BigDecimal amount,
+                                LocalDateTime postedAt,
+                                Integer accountId) {
+
+    public static final int VERSION = 2;
+
+    public TransactionPosted(String referenceId, String type, Integer fromAccountId, Integer toAccountId,
+                             BigDecimal amount, LocalDateTime postedAt, Integer accountId) {
+        this(VERSION, referenceId, type, fromAccountId, toAccountId, amount, postedAt, accountId);
+    }
+
+    // The account that started the posting: the source of a transfer or debit, the target of a credit
+    public Integer initiatingAccountId() {
+        return fromAccountId != null ? fromAccountId : toAccountId;
+    }
+
+    // True for the initiating account's event, and for version 1 payloads
+    public boolean initiatingLeg() {
+        return accountId == null || accountId.equals(initiatingAccountId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.projecct.bankx_digital_banking_platform.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded asynchronous front of {@link EmailService}. A fixed pool sends mails concurrently so one
+ * slow SMTP call no longer holds up everything behind it, and at most queue-capacity mails may be
+ * waiting at any time: {@link #dispatch} blocks once that is reached. {@link #utilization()} drives
+ * the pausing of the Kafka email listeners before it gets that far.
+ */
+@Slf4j
+@Component
+public class EmailDispatcher {
+
+    private final EmailService emailService;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore slots;
+    private final int capacity;
+    private final Counter failures;
+
+    public EmailDispatcher(EmailService emailService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.email.dispatch.threads:8}") int threads,
+                           @Value("${app.email.dispatch.queue-capacity:1000}") int queueCapacity) {
+        this.emailService = emailService;
+        this.capacity = threads + queueCapacity;
+        this.slots = new Semaphore(capacity);
+        AtomicInteger counter = new AtomicInteger();
+        // The queue itself is unbounded, admission is bounded by the semaphore
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "email-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.failures = meterRegistry.counter("bankx.email.failures");
+        meterRegistry.gauge("bankx.email.dispatch.pending", slots, s -> capacity - s.availablePermits());
+    }
+
+    public CompletableFuture<Void> dispatch(String to, String subject, String text) throws InterruptedException {
+        slots.acquire();
+        try {
+            return CompletableFuture.runAsync(() -> emailService.sendEmail(to, subject, text), pool)
+                    .whenComplete((result, error) -> slots.release());
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    // Non-blocking variant for scheduled senders, null when the dispatcher is full
+    public CompletableFuture<Void> tryDispatch(String to, String subject, String text) {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        try {
+            return CompletableFuture.runAsync(() -> emailService.sendEmail(to, subject, text), pool)
+                    .whenComplete((result, error) -> {
+                        slots.release();
+                        if (error != null) {
+                            failures.increment();
+                            log.warn("Sending email failed: {}", error.getMessage());
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    // Waits for every mail of a consumed batch, failures are logged and counted, not rethrown
+    public int awaitAll(List<CompletableFuture<Void>> sends) {
+        int failed = 0;
+        for (CompletableFuture<Void> send : sends) {
+            try {
+                send.join();
+            } catch (CompletionException e) {
+                failed++;
+                failures.increment();
+                log.warn("Sending email failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    // Share of the dispatch capacity in use, 0 = idle, 1 = dispatch() blocks
+    public double utilization() {
+        return (capacity - slots.availablePermits()) / (double) capacity;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,21 +1,40 @@
 package com.projecct.bankx_digital_banking_platform.notification;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final SmtpTransportPool smtpTransportPool;
+
+    @Value("${spring.mail.username:}")
+    private String from;
 
     public void sendEmail(String to, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        smtpTransportPool.send(List.of(message(to, subject, text)));
+    }
+
+    private MimeMessage message(String to, String subject, String text) {
+        try {
+            MimeMessage message = new MimeMessage(smtpTransportPool.session());
+            if (!from.isBlank()) {
+                message.setFrom(new InternetAddress(from));
+            }
+            message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+            message.setSubject(subject, "UTF-8");
+            message.setText(text, "UTF-8");
+            return message;
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Cannot build mail to " + to, e);
+        }
     }
 }
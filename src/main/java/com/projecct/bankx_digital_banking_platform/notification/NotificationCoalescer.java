@@ -0,0 +1,214 @@
+package com.projecct.bankx_digital_banking_platform.notification;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns bursts of transaction alerts into digests. Alerts are buffered per recipient for the
+ * digest window, counted from the first buffered alert, and then sent as one mail; a single
+ * buffered alert still goes out as a normal alert. Every recipient also has a token bucket of
+ * max-per-hour mails, a recipient over the limit keeps buffering until a token is free.
+ * <p>
+ * Each alert's future completes once the digest carrying it was sent. A digest SMTP rejects goes
+ * back into the buffer, after max-attempts sends its alerts' futures fail. Buffered alerts live in
+ * memory only, so a crash loses at most one window of alerts (the Kafka offsets are already
+ * committed). At most max-lines lines are kept per digest, the rest are counted.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    private final EmailDispatcher emailDispatcher;
+    private final long windowNanos;
+    private final int maxLines;
+    private final int maxPerHour;
+    private final int maxAttempts;
+    private volatile boolean closed;
+    private final Map<String, Digest> digests = new ConcurrentHashMap<>();
+    private final Map<String, RateLimit> limits = new ConcurrentHashMap<>();
+
+    public NotificationCoalescer(EmailDispatcher emailDispatcher,
+                                 @Value("${app.email.digest.window-ms:60000}") long windowMs,
+                                 @Value("${app.email.digest.max-lines:50}") int maxLines,
+                                 @Value("${app.email.digest.max-per-hour:10}") int maxPerHour,
+                                 @Value("${app.email.digest.max-attempts:3}") int maxAttempts) {
+        this.emailDispatcher = emailDispatcher;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxLines = maxLines;
+        this.maxPerHour = maxPerHour;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Completes when the digest carrying the alert was sent, exceptionally once it is given up on
+    public CompletableFuture<Void> add(String email, String line) {
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        digests.compute(email.toLowerCase(Locale.ROOT), (recipient, digest) -> {
+            Digest current = digest != null ? digest : new Digest(email, System.nanoTime());
+            current.add(line, delivered, maxLines);
+            return current;
+        });
+        return delivered;
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.digest.tick-ms:1000}")
+    public void flushDue() {
+        long now = System.nanoTime();
+        for (String recipient : digests.keySet()) {
+            Digest digest = digests.get(recipient);
+            if (digest == null || now - digest.firstAt < windowNanos) {
+                continue;
+            }
+            RateLimit limit = limits.computeIfAbsent(recipient, r -> new RateLimit(maxPerHour, now));
+            if (!limit.tryTake(now)) {
+                continue;
+            }
+            // Removed under the map's lock so no alert is added to a digest that is already going out
+            Digest taken = digests.remove(recipient);
+            if (taken == null) {
+                continue;
+            }
+            if (!send(taken)) {
+                // Dispatcher full, put it back (merged with anything added meanwhile) for the next tick
+                digests.merge(recipient, taken, (newer, older) -> older.absorb(newer, maxLines));
+                limit.giveBack();
+            }
+        }
+        limits.values().removeIf(limit -> limit.idle(now));
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        closed = true;
+        for (String recipient : List.copyOf(digests.keySet())) {
+            Digest digest = digests.remove(recipient);
+            if (digest != null && !send(digest)) {
+                log.warn("Dropping digest of {} alerts for {} on shutdown", digest.total, digest.email);
+                digest.fail(new IllegalStateException("Dropped on shutdown"));
+            }
+        }
+    }
+
+    // SMTP rejected the digest: buffered again, so it goes out on a later tick, until it ran out of attempts
+    private void failed(Digest digest, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (++digest.attempts < maxAttempts && !closed) {
+            digests.merge(digest.email.toLowerCase(Locale.ROOT), digest, (newer, older) -> older.absorb(newer, maxLines));
+            return;
+        }
+        log.warn("Giving up on digest of {} alerts for {} after {} attempts: {}", digest.total, digest.email,
+                digest.attempts, cause.getMessage());
+        digest.fail(cause);
+    }
+
+    private boolean send(Digest digest) {
+        String subject;
+        String text;
+        if (digest.total == 1) {
+            subject = "Transaction Alert";
+            text = digest.lines.get(0);
+        } else {
+            subject = "Transaction digest: " + digest.total + " transactions";
+            StringBuilder body = new StringBuilder("The following transactions were made on your accounts:\n\n");
+            digest.lines.forEach(line -> body.append("- ").append(line).append('\n'));
+            if (digest.total > digest.lines.size()) {
+                body.append("\n... and ").append(digest.total - digest.lines.size()).append(" more.\n");
+            }
+            text = body.toString();
+        }
+        CompletableFuture<Void> send = emailDispatcher.tryDispatch(digest.email, subject, text);
+        if (send == null) {
+            return false;
+        }
+        send.whenComplete((result, error) -> {
+            if (error == null) {
+                digest.delivered.forEach(delivered -> delivered.complete(null));
+            } else {
+                failed(digest, error);
+            }
+        });
+        return true;
+    }
+
+    private static final class Digest {
+        private final String email;
+        private final long firstAt;
+        private final List<String> lines = new ArrayList<>();
+        private final List<CompletableFuture<Void>> delivered = new ArrayList<>();
+        private int total;
+        private int attempts;
+
+        private Digest(String email, long firstAt) {
+            this.email = email;
+            this.firstAt = firstAt;
+        }
+
+        private void add(String line, CompletableFuture<Void> alert, int maxLines) {
+            total++;
+            delivered.add(alert);
+            if (lines.size() < maxLines) {
+                lines.add(line);
+            }
+        }
+
+        private Digest absorb(Digest newer, int maxLines) {
+            for (String line : newer.lines) {
+                if (lines.size() < maxLines) {
+                    lines.add(line);
+                }
+            }
+            total += newer.total;
+            delivered.addAll(newer.delivered);
+            return this;
+        }
+
+        private void fail(Throwable cause) {
+            delivered.forEach(alert -> alert.completeExceptionally(cause));
+        }
+    }
+
+    // Token bucket refilled continuously at capacity tokens per hour
+    private static final class RateLimit {
+        private static final long HOUR_NANOS = TimeUnit.HOURS.toNanos(1);
+
+        private final int capacity;
+        private double tokens;
+        private long refilledAt;
+
+        private RateLimit(int capacity, long now) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        private synchronized boolean tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * (double) capacity / HOUR_NANOS);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized void giveBack() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        // Full again, nothing left to remember
+        private synchronized boolean idle(long now) {
+            return tokens + (now - refilledAt) * (double) capacity / HOUR_NANOS >= capacity;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.projecct.bankx_digital_banking_platform.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps up to pool-size authenticated SMTP sessions open and reuses them, instead of the
+ * connect / EHLO / STARTTLS / AUTH / QUIT round trips JavaMailSender does for every message.
+ * A connection is recycled after max-messages-per-connection messages or max-idle-ms of
+ * idleness; one that fails while reused (e.g. closed by the server) is dropped and the send is
+ * retried once on a fresh connection.
+ */
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long maxIdleNanos;
+    private final int maxMessagesPerConnection;
+    private final long borrowTimeoutMs;
+    private final BlockingQueue<PooledTransport> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final AtomicInteger open = new AtomicInteger();
+    private final Counter opened;
+    private final Counter sent;
+    private final Timer borrowWait;
+    private volatile boolean closed;
+
+    public SmtpTransportPool(Session session, String host, int port, String username, String password,
+                             int poolSize, long maxIdleMs, int maxMessagesPerConnection, long borrowTimeoutMs,
+                             MeterRegistry meterRegistry) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.permits = new Semaphore(poolSize);
+        this.opened = meterRegistry.counter("bankx.smtp.connections.opened");
+        this.sent = meterRegistry.counter("bankx.smtp.messages.sent");
+        this.borrowWait = meterRegistry.timer("bankx.smtp.borrow.wait");
+        meterRegistry.gauge("bankx.smtp.pool.open", open, AtomicInteger::get);
+        meterRegistry.gauge("bankx.smtp.pool.idle", idle, BlockingQueue::size);
+    }
+
+    public Session session() {
+        return session;
+    }
+
+    // All messages go over one borrowed connection
+    public void send(List<MimeMessage> messages) {
+        PooledTransport transport = borrow();
+        try {
+            for (MimeMessage message : messages) {
+                transport = sendOne(transport, message);
+            }
+        } catch (RuntimeException e) {
+            // sendOne already discarded the failed connection
+            permits.release();
+            throw e;
+        }
+        release(transport);
+    }
+
+    public int openConnections() {
+        return open.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            discard(transport);
+        }
+    }
+
+    private PooledTransport sendOne(PooledTransport transport, MimeMessage message) {
+        try {
+            transport.send(message);
+            sent.increment();
+            return transport;
+        } catch (MessagingException | IllegalStateException e) {
+            discard(transport);
+            if (transport.messages == 0) {
+                throw new MailSendException("Sending mail failed", e);
+            }
+            // A reused connection may have been dropped by the server, retry once on a new one
+            log.debug("Pooled SMTP connection failed, reconnecting: {}", e.getMessage());
+            PooledTransport fresh = connect();
+            try {
+                fresh.send(message);
+                sent.increment();
+                return fresh;
+            } catch (MessagingException retry) {
+                discard(fresh);
+                throw new MailSendException("Sending mail failed", retry);
+            }
+        }
+    }
+
+    private PooledTransport borrow() {
+        if (closed) {
+            throw new MailSendException("SMTP pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection available within " + borrowTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection");
+        } finally {
+            borrowWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            PooledTransport transport;
+            while ((transport = idle.poll()) != null) {
+                if (System.nanoTime() - transport.lastUsed < maxIdleNanos && transport.transport.isConnected()) {
+                    return transport;
+                }
+                discard(transport);
+            }
+            return connect();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        if (closed || transport.messages >= maxMessagesPerConnection) {
+            discard(transport);
+        } else {
+            transport.lastUsed = System.nanoTime();
+            idle.add(transport);
+        }
+        permits.release();
+    }
+
+    private PooledTransport connect() {
+        try {
+            Transport transport = session.getTransport();
+            transport.connect(host, port, username, password);
+            open.incrementAndGet();
+            opened.increment();
+            return new PooledTransport(transport);
+        } catch (MessagingException e) {
+            throw new MailSendException("Cannot connect to SMTP server " + host + ":" + port, e);
+        }
+    }
+
+    private void discard(PooledTransport transport) {
+        open.decrementAndGet();
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messages;
+        private long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            messages++;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.projecct.bankx_digital_banking_platform.transaction;
 
-import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -16,20 +16,39 @@ import java.time.LocalDateTime;
 public class OutboxEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
     private Long id; // Unique ID for this event
 
     private String aggregateType; // e.g., "Transaction", "Account"
     private String aggregateId;   // e.g., transaction referenceId, accountId
 
+    private String eventKey;      // Kafka record key (account id), keeps per-account event order
+
     private String type;          // Type of event, e.g., "TRANSFER_INITIATED", "TRANSACTION_SUCCESS"
 
     @Column(columnDefinition = "TEXT")
     private String payload;       // JSON string of event data
 
-    private Transaction.Status status;        // PENDING, SENT, FAILED
+    @Enumerated(EnumType.STRING)
+    private Status status;        // PENDING, IN_FLIGHT, RETRY, SUCCESS, DEAD_LETTER
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;         // Failed publish attempts so far
+
+    private LocalDateTime nextAttemptAt; // When a RETRY row goes back to PENDING
+
+    private LocalDateTime claimedUntil; // Deadline of an IN_FLIGHT claim, the row goes back to PENDING after it
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
 
     private LocalDateTime createdAt = LocalDateTime.now(); // Timestamp
 
     private LocalDateTime sentAt; // When the event was successfully sent
+
+    public enum Status {
+        PENDING, IN_FLIGHT, RETRY, SUCCESS, DEAD_LETTER
+    }
 }
@@ -0,0 +1,50 @@
+package com.projecct.bankx_digital_banking_platform.transaction;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+// Mapped so the schema exists without migrations; rows are moved in by OutboxArchiver
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_events_archive", indexes = @Index(name = "idx_outbox_events_archive_created_at", columnList = "created_at"))
+public class OutboxEventArchive {
+
+    @Id
+    private Long id; // id the event had in outbox_events
+
+    private String aggregateType;
+    private String aggregateId;
+
+    @Column(length = 64)
+    private String eventKey;
+
+    private String type;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(length = 20)
+    private String status;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @ColumnDefault("now()")
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
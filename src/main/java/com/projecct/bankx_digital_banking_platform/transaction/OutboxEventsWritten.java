@@ -0,0 +1,7 @@
+package com.projecct.bankx_digital_banking_platform.transaction;
+
+// Published whenever outbox rows were inserted, relays are woken once the surrounding transaction commits
+public record OutboxEventsWritten() {
+
+    public static final OutboxEventsWritten INSTANCE = new OutboxEventsWritten();
+}
@@ -2,6 +2,7 @@ package com.projecct.bankx_digital_banking_platform.transaction;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.projecct.bankx_digital_banking_platform.account.Account;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,7 +15,10 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_account_created", columnList = "from_account_id, created_at, id"),
+        @Index(name = "idx_transactions_to_account_created", columnList = "to_account_id, created_at, id")
+})
 public class Transaction {
 
     public enum Type {
@@ -25,8 +29,13 @@ public class Transaction {
         PENDING, SUCCESS, FAILED
     }
 
+    // Fallback for rows persisted without an explicit reference id, set by the configured bean at startup.
+    // There is no default: a generator on a guessed node id would collide with other instances.
+    private static volatile ReferenceIdGenerator referenceIdGenerator;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -61,21 +70,21 @@ public class Transaction {
             status = Status.PENDING;
         }
         if (referenceId == null) {
-            referenceId = generateRefId();
+            referenceId = newReferenceId();
         }
     }
 
 
 
-    private String generateRefId() {
-        String timestamp = java.time.format.DateTimeFormatter
-                .ofPattern("yyyyMMddHHmmss")
-                .format(LocalDateTime.now());
-        return "TXN-" + timestamp + "-" + random4Digits();
+    public static String newReferenceId() {
+        ReferenceIdGenerator generator = referenceIdGenerator;
+        if (generator == null) {
+            throw new IllegalStateException("No reference id generator configured");
+        }
+        return generator.next();
     }
 
-
-    private String random4Digits() {
-        return String.valueOf((int)(Math.random() * 9000) + 1000);
+    public static void useReferenceIdGenerator(ReferenceIdGenerator generator) {
+        referenceIdGenerator = generator;
     }
 }
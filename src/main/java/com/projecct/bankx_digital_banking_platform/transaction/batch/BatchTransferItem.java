@@ -0,0 +1,15 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import java.math.BigDecimal;
+
+// One requested transfer; error is set when the reader could not parse it, the item then fails on its own
+public record BatchTransferItem(Integer toAccountId, BigDecimal amount, String error) {
+
+    public BatchTransferItem(Integer toAccountId, BigDecimal amount) {
+        this(toAccountId, amount, null);
+    }
+
+    static BatchTransferItem malformed(String error) {
+        return new BatchTransferItem(null, null, error);
+    }
+}
@@ -0,0 +1,160 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming readers for batch transfer requests, items are parsed one at a time so a payroll file
+ * of any size is never held in memory.
+ * <p>
+ * JSON: an array of {"toAccountId": 1, "amount": 10.00}. CSV: one "toAccountId,amount" per line,
+ * an optional header line is skipped. An entry that cannot be read becomes a
+ * {@link BatchTransferItem#malformed} item, so it fails on its own and the rest of the file goes
+ * ahead; only broken JSON syntax ends the stream.
+ */
+public final class BatchTransferReader {
+
+    private BatchTransferReader() {
+    }
+
+    public static Iterator<BatchTransferItem> json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        // Amounts keep their exact decimal text instead of going through double
+        ObjectReader nodes = objectMapper.readerFor(JsonNode.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected a JSON array of transfer items");
+        }
+        return new Iterator<>() {
+            private JsonToken next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null && next != JsonToken.END_ARRAY;
+            }
+
+            @Override
+            public BatchTransferItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    JsonNode node = nodes.readValue(parser);
+                    next = advance();
+                    return item(node);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            private JsonToken advance() {
+                try {
+                    return parser.nextToken();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    public static Iterator<BatchTransferItem> csv(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return new Iterator<>() {
+            private String line = firstLine();
+
+            @Override
+            public boolean hasNext() {
+                return line != null;
+            }
+
+            @Override
+            public BatchTransferItem next() {
+                if (line == null) {
+                    throw new NoSuchElementException();
+                }
+                String current = line;
+                line = readLine();
+                String[] columns = current.split(",");
+                if (columns.length != 2) {
+                    return BatchTransferItem.malformed("Expected toAccountId,amount but got: " + current);
+                }
+                try {
+                    return new BatchTransferItem(Integer.valueOf(columns[0].trim()), new BigDecimal(columns[1].trim()));
+                } catch (NumberFormatException e) {
+                    return BatchTransferItem.malformed("Not a number in: " + current);
+                }
+            }
+
+            private String firstLine() {
+                String first = readLine();
+                return first != null && !Character.isDigit(first.trim().charAt(0)) ? readLine() : first;
+            }
+
+            private String readLine() {
+                try {
+                    String next;
+                    do {
+                        next = reader.readLine();
+                    } while (next != null && next.isBlank());
+                    return next;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static BatchTransferItem item(JsonNode node) {
+        if (!node.isObject()) {
+            return BatchTransferItem.malformed("Expected a transfer object but got: " + node);
+        }
+        try {
+            return new BatchTransferItem(accountId(node.path("toAccountId")), amount(node.path("amount")));
+        } catch (NumberFormatException e) {
+            return BatchTransferItem.malformed("Not a number in: " + node);
+        }
+    }
+
+    // Numbers or numeric strings, absent or null stays null for the service to reject
+    private static Integer accountId(JsonNode value) {
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        if (value.isIntegralNumber() && value.canConvertToInt()) {
+            return value.intValue();
+        }
+        if (value.isTextual()) {
+            return Integer.valueOf(value.textValue().trim());
+        }
+        throw new NumberFormatException(value.toString());
+    }
+
+    private static BigDecimal amount(JsonNode value) {
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.decimalValue();
+        }
+        if (value.isTextual()) {
+            return new BigDecimal(value.textValue().trim());
+        }
+        throw new NumberFormatException(value.toString());
+    }
+}
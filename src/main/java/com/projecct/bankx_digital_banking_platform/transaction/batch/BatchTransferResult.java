@@ -0,0 +1,20 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+
+import java.math.BigDecimal;
+
+// One line of the batch response stream, index is the position of the item in the request
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchTransferResult(int index,
+                                  Integer toAccountId,
+                                  BigDecimal amount,
+                                  Transaction.Status status,
+                                  String referenceId,
+                                  String error) {
+
+    static BatchTransferResult failed(int index, BatchTransferItem item, String error) {
+        return new BatchTransferResult(index, item.toAccountId(), item.amount(), Transaction.Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,228 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.common.money.Money;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.BalanceOverdrawnException;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConcurrencyMode;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingResult;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk transfers from one source account (payroll). Items are posted in chunks, one database
+ * transaction per chunk: the source is debited once for the chunk total (which is also the only
+ * balance check), credits are applied with a single multi-row UPDATE and all records go through the
+ * batched {@link PostingStore}. Results are pushed to the sink as soon as a chunk is done.
+ */
+@Slf4j
+@Service
+public class BatchTransferService {
+
+    private final AccountRepo accountRepo;
+    private final PostingEngine postingEngine;
+    private final PostingStore postingStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final BalanceCache balanceCache;
+    private final ConcurrencyMode concurrencyMode;
+    private final int chunkSize;
+
+    public BatchTransferService(AccountRepo accountRepo,
+                                PostingEngine postingEngine,
+                                PostingStore postingStore,
+                                TransactionTemplate transactionTemplate,
+                                ReferenceIdGenerator referenceIdGenerator,
+                                BalanceCache balanceCache,
+                                @Value("${app.posting.concurrency-mode:SHARDED}") ConcurrencyMode concurrencyMode,
+                                @Value("${app.posting.batch.chunk-size:500}") int chunkSize) {
+        this.accountRepo = accountRepo;
+        this.postingEngine = postingEngine;
+        this.postingStore = postingStore;
+        this.transactionTemplate = transactionTemplate;
+        this.referenceIdGenerator = referenceIdGenerator;
+        this.balanceCache = balanceCache;
+        this.concurrencyMode = concurrencyMode;
+        this.chunkSize = chunkSize;
+    }
+
+    @CacheEvict(value = "transactions", allEntries = true)
+    public void transfer(Integer fromAccountId, Iterator<BatchTransferItem> items, Consumer<BatchTransferResult> sink) {
+        AccountBalanceView source = accountRepo.findBalanceViewById(fromAccountId)
+                .orElseThrow(() -> new RuntimeException("From account not found"));
+
+        List<Indexed> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (items.hasNext()) {
+            BatchTransferItem item = items.next();
+            int position = index++;
+            String invalid = validate(fromAccountId, item);
+            if (invalid != null) {
+                sink.accept(BatchTransferResult.failed(position, item, invalid));
+                continue;
+            }
+            chunk.add(new Indexed(position, item));
+            if (chunk.size() == chunkSize) {
+                postChunk(fromAccountId, source.getOwnerName(), chunk, sink);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            postChunk(fromAccountId, source.getOwnerName(), chunk, sink);
+        }
+    }
+
+    // Rejected items fail on their own before posting, so one bad line cannot fail its whole chunk
+    private String validate(Integer fromAccountId, BatchTransferItem item) {
+        if (item.error() != null) {
+            return item.error();
+        }
+        if (item.toAccountId() == null || item.amount() == null || item.amount().signum() <= 0) {
+            return "toAccountId and a positive amount are required";
+        }
+        if (item.toAccountId().equals(fromAccountId)) {
+            return "Cannot transfer to the source account";
+        }
+        try {
+            Money.of(item.amount());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void postChunk(Integer fromAccountId, String ownerName, List<Indexed> chunk, Consumer<BatchTransferResult> sink) {
+        // Unknown destinations fail on their own, the rest of the chunk goes ahead
+        Set<Integer> requested = chunk.stream().map(c -> c.item().toAccountId()).collect(Collectors.toSet());
+        Set<Integer> existing = new HashSet<>(accountRepo.findExistingIds(requested));
+        List<Indexed> valid = new ArrayList<>(chunk.size());
+        for (Indexed c : chunk) {
+            if (existing.contains(c.item().toAccountId())) {
+                valid.add(c);
+            } else {
+                sink.accept(BatchTransferResult.failed(c.index(), c.item(), "To account not found"));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        BigDecimal total = valid.stream().map(c -> c.item().amount()).reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<Posting> postings;
+        try {
+            postings = concurrencyMode == ConcurrencyMode.SHARDED
+                    ? postSharded(fromAccountId, ownerName, valid, total)
+                    : postDirect(fromAccountId, ownerName, valid, total);
+        } catch (RuntimeException e) {
+            log.warn("Batch chunk of {} transfers from account {} failed: {}", valid.size(), fromAccountId, e.getMessage());
+            valid.forEach(c -> sink.accept(BatchTransferResult.failed(c.index(), c.item(), e.getMessage())));
+            return;
+        }
+
+        for (int i = 0; i < valid.size(); i++) {
+            Indexed c = valid.get(i);
+            Posting p = postings.get(i);
+            sink.accept(new BatchTransferResult(c.index(), p.toAccountId(), p.amount(), p.status(), p.referenceId(),
+                    p.succeeded() ? null : "Insufficient balance"));
+        }
+    }
+
+    private List<Posting> postSharded(Integer fromAccountId, String ownerName, List<Indexed> chunk, BigDecimal total) {
+        PostingResult debit = postingEngine.post(fromAccountId, null, total, Transaction.Type.DEBIT);
+        if (!debit.approved()) {
+            return writeRejected(fromAccountId, ownerName, chunk, debit.fromBalanceAfter());
+        }
+        List<PostingResult> credits = new ArrayList<>(chunk.size());
+        try {
+            BigDecimal fromBalance = debit.fromBalanceAfter().add(total);
+            List<Posting> postings = new ArrayList<>(chunk.size());
+            for (Indexed c : chunk) {
+                PostingResult credit = postingEngine.post(null, c.item().toAccountId(), c.item().amount(), Transaction.Type.CREDIT);
+                credits.add(credit);
+                fromBalance = fromBalance.subtract(c.item().amount());
+                postings.add(posting(fromAccountId, ownerName, c.item(), Transaction.Status.SUCCESS, fromBalance, credit.toBalanceAfter()));
+            }
+            // Deltas are aggregated per account, the source row is updated once for the whole chunk
+            transactionTemplate.executeWithoutResult(status -> postingStore.write(postings, true));
+            return postings;
+        } catch (RuntimeException e) {
+            postingEngine.revert(debit);
+            credits.forEach(postingEngine::revert);
+            if (e instanceof BalanceOverdrawnException overdrawn) {
+                overdrawn.getAccountIds().forEach(postingEngine::evict);
+            }
+            throw e;
+        }
+    }
+
+    private List<Posting> postDirect(Integer fromAccountId, String ownerName, List<Indexed> chunk, BigDecimal total) {
+        return transactionTemplate.execute(status -> {
+            Optional<AccountBalanceView> debited = accountRepo.debitIfSufficient(fromAccountId, total);
+            if (debited.isEmpty()) {
+                BigDecimal current = accountRepo.findBalanceViewById(fromAccountId)
+                        .map(AccountBalanceView::getBalance).orElse(null);
+                return writeRejected(fromAccountId, ownerName, chunk, current);
+            }
+            balanceCache.putAfterCommit(fromAccountId, debited.get().getBalance(), debited.get().getVersion());
+
+            Map<Integer, BigDecimal> creditTotals = new TreeMap<>();
+            chunk.forEach(c -> creditTotals.merge(c.item().toAccountId(), c.item().amount(), BigDecimal::add));
+            Map<Integer, BigDecimal> after = postingStore.applyBalanceDeltas(creditTotals);
+
+            // Rebuild per-item balances from the post-balances returned by the updates
+            Map<Integer, BigDecimal> running = new HashMap<>();
+            creditTotals.forEach((id, sum) -> running.put(id, after.get(id).subtract(sum)));
+            BigDecimal fromBalance = debited.get().getBalance().add(total);
+            List<Posting> postings = new ArrayList<>(chunk.size());
+            for (Indexed c : chunk) {
+                BigDecimal toBalance = running.merge(c.item().toAccountId(), c.item().amount(), BigDecimal::add);
+                fromBalance = fromBalance.subtract(c.item().amount());
+                postings.add(posting(fromAccountId, ownerName, c.item(), Transaction.Status.SUCCESS, fromBalance, toBalance));
+            }
+            postingStore.write(postings, false);
+            return postings;
+        });
+    }
+
+    private List<Posting> writeRejected(Integer fromAccountId, String ownerName, List<Indexed> chunk, BigDecimal fromBalance) {
+        List<Posting> postings = chunk.stream()
+                .map(c -> posting(fromAccountId, ownerName, c.item(), Transaction.Status.FAILED, fromBalance, null))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> postingStore.write(postings, false));
+        return postings;
+    }
+
+    private Posting posting(Integer fromAccountId, String ownerName, BatchTransferItem item, Transaction.Status status,
+                            BigDecimal fromBalanceAfter, BigDecimal toBalanceAfter) {
+        boolean success = status == Transaction.Status.SUCCESS;
+        return new Posting(referenceIdGenerator.next(), Transaction.Type.TRANSFER, status, fromAccountId,
+                item.toAccountId(), item.amount(), success ? fromAccountId : null, success ? item.toAccountId() : null,
+                fromBalanceAfter, toBalanceAfter, ownerName, LocalDateTime.now());
+    }
+
+    private record Indexed(int index, BatchTransferItem item) {
+    }
+}
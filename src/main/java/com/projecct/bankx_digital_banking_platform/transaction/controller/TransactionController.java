@@ -1,14 +1,34 @@
 package com.projecct.bankx_digital_banking_platform.transaction.controller;
 
-import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.projecct.bankx_digital_banking_platform.exceptions.IdempotencyConflictException;
+import com.projecct.bankx_digital_banking_platform.exceptions.InsufficientBalanceException;
+import com.projecct.bankx_digital_banking_platform.transaction.batch.BatchTransferItem;
+import com.projecct.bankx_digital_banking_platform.transaction.batch.BatchTransferReader;
+import com.projecct.bankx_digital_banking_platform.transaction.batch.BatchTransferService;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyService;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRow;
 import com.projecct.bankx_digital_banking_platform.transaction.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -16,19 +36,24 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173")
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final BatchTransferService batchTransferService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
+    public ResponseEntity<List<TransactionRow>> getAllTransactions() {
         return ResponseEntity.ok(transactionService.getAllTransactions());
     }
 
     @GetMapping("/reference/{referenceId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<Transaction> getTransactionByReferenceId(@PathVariable String referenceId) {
+    public ResponseEntity<TransactionRow> getTransactionByReferenceId(@PathVariable String referenceId) {
         try {
-            Transaction transaction = transactionService.getTransactionByReferenceId(referenceId);
+            TransactionRow transaction = transactionService.getTransactionByReferenceId(referenceId);
             return ResponseEntity.ok(transaction);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -37,28 +62,71 @@ public class TransactionController {
 
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<Transaction>> getTransactionsByAccountId(@PathVariable Integer accountId) {
+    public ResponseEntity<List<TransactionRow>> getTransactionsByAccountId(@PathVariable Integer accountId) {
         return ResponseEntity.ok(transactionService.getTransactionsByAccount(accountId));
     }
 
+    // Keyset-paginated statement, first-page latency does not grow with the account's history
+    @GetMapping("/account/{accountId}/history")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getTransactionHistory(@PathVariable Integer accountId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getHistoryPage(accountId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Full table as NDJSON, streamed from a database cursor with constant memory
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions() {
+        StreamingResponseBody stream = out -> {
+            SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+            transactionService.exportTransactions(row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(stream);
+    }
+
     @PostMapping("/deposit")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<?> deposit(@RequestParam Integer accountId, @RequestParam BigDecimal amount) {
+    public ResponseEntity<?> deposit(@RequestParam Integer accountId, @RequestParam BigDecimal amount,
+                                     @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                     Authentication authentication) {
         try {
-            var result = transactionService.deposit(accountId, amount);
+            var result = idempotencyService.execute(authentication.getName(), idempotencyKey,
+                    "deposit:" + accountId + ":" + fingerprint(amount),
+                    claim -> transactionService.deposit(accountId, amount, claim));
             return ResponseEntity.ok(result);
-        } catch (Exception e) {
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception | InsufficientBalanceException e) {
             return ResponseEntity.badRequest().body("Deposit failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/withdraw")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<?> withdraw(@RequestParam Integer accountId, @RequestParam BigDecimal amount) {
+    public ResponseEntity<?> withdraw(@RequestParam Integer accountId, @RequestParam BigDecimal amount,
+                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                      Authentication authentication) {
         try {
-            var result = transactionService.withdraw(accountId, amount);
+            var result = idempotencyService.execute(authentication.getName(), idempotencyKey,
+                    "withdraw:" + accountId + ":" + fingerprint(amount),
+                    claim -> transactionService.withdraw(accountId, amount, claim));
             return ResponseEntity.ok(result);
-        } catch (Exception e) {
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception | InsufficientBalanceException e) {
             return ResponseEntity.badRequest().body("Withdrawal failed: " + e.getMessage());
         }
     }
@@ -67,14 +135,56 @@ public class TransactionController {
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> transfer(@RequestParam Integer fromAccountId, 
                                     @RequestParam Integer toAccountId, 
-                                    @RequestParam BigDecimal amount) {
+                                    @RequestParam BigDecimal amount,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    Authentication authentication) {
         try {
-            var result = transactionService.transfer(fromAccountId, toAccountId, amount);
+            var result = idempotencyService.execute(authentication.getName(), idempotencyKey,
+                    "transfer:" + fromAccountId + ":" + toAccountId + ":" + fingerprint(amount),
+                    claim -> transactionService.transfer(fromAccountId, toAccountId, amount, claim));
             return ResponseEntity.ok(result);
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (com.projecct.bankx_digital_banking_platform.exceptions.InsufficientBalanceException e) {
             return ResponseEntity.badRequest().body("Insufficient balance: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Transfer failed: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Payroll-style bulk transfer: JSON array or CSV in, one NDJSON result line per item out
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"}, produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> batchTransfer(@RequestParam Integer fromAccountId,
+                                                               @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                               HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        boolean csv = contentType.startsWith("text/csv");
+        StreamingResponseBody stream = out -> {
+            try {
+                Iterator<BatchTransferItem> items = csv
+                        ? BatchTransferReader.csv(body)
+                        : BatchTransferReader.json(body, objectMapper);
+                batchTransferService.transfer(fromAccountId, items, result -> writeLine(out, result));
+            } catch (RuntimeException e) {
+                writeLine(out, Map.of("error", "Batch aborted: " + e.getMessage()));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(stream);
+    }
+
+    // Same amount, same fingerprint: a retry sending 100 instead of 100.00 is the same request
+    static String fingerprint(BigDecimal amount) {
+        return amount.stripTrailingZeros().toPlainString();
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.Account;
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyClaim;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database-locking alternative to the {@link PostingEngine}, used when
+ * app.posting.concurrency-mode is OPTIMISTIC or PESSIMISTIC. Balances are checked and updated
+ * on the Account entities and the posting records are written in the same transaction.
+ */
+@Slf4j
+@Component
+public class AccountLockingPoster {
+
+    private final AccountRepo accountRepo;
+    private final PostingStore postingStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final BalanceCache balanceCache;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final Counter optimisticRetries;
+    private final Counter optimisticExhausted;
+    private final Timer lockWait;
+
+    public AccountLockingPoster(AccountRepo accountRepo,
+                                PostingStore postingStore,
+                                TransactionTemplate transactionTemplate,
+                                ReferenceIdGenerator referenceIdGenerator,
+                                BalanceCache balanceCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.posting.optimistic.max-attempts:5}") int maxAttempts,
+                                @Value("${app.posting.optimistic.backoff-ms:5}") long backoffMs) {
+        this.accountRepo = accountRepo;
+        this.postingStore = postingStore;
+        this.transactionTemplate = transactionTemplate;
+        this.referenceIdGenerator = referenceIdGenerator;
+        this.balanceCache = balanceCache;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.optimisticRetries = meterRegistry.counter("bankx.posting.optimistic.retries");
+        this.optimisticExhausted = meterRegistry.counter("bankx.posting.optimistic.exhausted");
+        this.lockWait = meterRegistry.timer("bankx.posting.pessimistic.lock.wait");
+    }
+
+    public Posting postOptimistic(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type,
+                                  IdempotencyClaim claim) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> apply(fromAccountId, toAccountId, amount, type, false, claim));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    optimisticExhausted.increment();
+                    throw e;
+                }
+                optimisticRetries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public Posting postPessimistic(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type,
+                                   IdempotencyClaim claim) {
+        return transactionTemplate.execute(status -> apply(fromAccountId, toAccountId, amount, type, true, claim));
+    }
+
+    private Posting apply(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type, boolean lock,
+                          IdempotencyClaim claim) {
+        boolean debit = type == Transaction.Type.DEBIT || type == Transaction.Type.TRANSFER;
+        boolean credit = type == Transaction.Type.CREDIT || type == Transaction.Type.TRANSFER;
+
+        Account fromAccount;
+        Account toAccount;
+        if (lock) {
+            long start = System.nanoTime();
+            // Ascending id order so two opposite transfers can never deadlock
+            boolean fromFirst = toAccountId == null || (fromAccountId != null && fromAccountId <= toAccountId);
+            if (fromFirst) {
+                fromAccount = debit ? lockAccount(fromAccountId, "From account not found") : null;
+                toAccount = credit ? lockAccount(toAccountId, "To account not found") : null;
+            } else {
+                toAccount = credit ? lockAccount(toAccountId, "To account not found") : null;
+                fromAccount = debit ? lockAccount(fromAccountId, "From account not found") : null;
+            }
+            lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            fromAccount = debit ? findAccount(fromAccountId, "From account not found") : null;
+            toAccount = credit ? findAccount(toAccountId, "To account not found") : null;
+        }
+        String fromOwner = fromAccount != null && fromAccount.getCustomer() != null ? fromAccount.getCustomer().getName() : null;
+
+        if (debit && balanceOf(fromAccount).compareTo(amount) < 0) {
+            PostingResult rejected = new PostingResult(fromAccountId, credit ? toAccountId : null, amount, false,
+                    balanceOf(fromAccount), toAccount != null ? balanceOf(toAccount) : null, fromOwner);
+            return write(rejected, fromAccountId, toAccountId, type, claim);
+        }
+
+        if (debit) {
+            fromAccount.setBalance(balanceOf(fromAccount).subtract(amount));
+        }
+        if (credit) {
+            toAccount.setBalance(balanceOf(toAccount).add(amount));
+        }
+        // Version check (optimistic) happens here
+        accountRepo.flush();
+        if (fromAccount != null) {
+            balanceCache.putAfterCommit(fromAccount.getId(), fromAccount.getBalance(), fromAccount.getVersion());
+        }
+        if (toAccount != null) {
+            balanceCache.putAfterCommit(toAccount.getId(), toAccount.getBalance(), toAccount.getVersion());
+        }
+
+        PostingResult result = new PostingResult(debit ? fromAccountId : null, credit ? toAccountId : null, amount, true,
+                fromAccount != null ? fromAccount.getBalance() : null,
+                toAccount != null ? toAccount.getBalance() : null, fromOwner);
+        return write(result, fromAccountId, toAccountId, type, claim);
+    }
+
+    private Posting write(PostingResult result, Integer fromAccountId, Integer toAccountId, Transaction.Type type,
+                          IdempotencyClaim claim) {
+        Posting posting = Posting.of(result, fromAccountId, toAccountId, type, referenceIdGenerator.next(), claim);
+        // Balances were already updated through the entities
+        postingStore.write(List.of(posting), false);
+        return posting;
+    }
+
+    private Account lockAccount(Integer accountId, String missingMessage) {
+        if (accountId == null) {
+            throw new RuntimeException(missingMessage);
+        }
+        return accountRepo.findByIdForUpdate(accountId).orElseThrow(() -> new RuntimeException(missingMessage));
+    }
+
+    private Account findAccount(Integer accountId, String missingMessage) {
+        if (accountId == null) {
+            throw new RuntimeException(missingMessage);
+        }
+        return accountRepo.findById(accountId).orElseThrow(() -> new RuntimeException(missingMessage));
+    }
+
+    private BigDecimal balanceOf(Account account) {
+        return account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying posting", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import java.util.List;
+
+/**
+ * Thrown by {@link PostingStore} when applying a batch's deltas would take an account below zero,
+ * which rolls the batch back. In SHARDED mode it means the engine's in-memory balance was behind the
+ * database, so the callers evict the accounts instead of reverting into the stale balance.
+ */
+public class BalanceOverdrawnException extends RuntimeException {
+
+    private final List<Integer> accountIds;
+
+    public BalanceOverdrawnException(List<Integer> accountIds) {
+        super("Posting would overdraw account(s) " + accountIds);
+        this.accountIds = List.copyOf(accountIds);
+    }
+
+    public List<Integer> getAccountIds() {
+        return accountIds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+// How createTransaction protects account balances against concurrent postings
+public enum ConcurrencyMode {
+    // In-memory single-writer shards + group commit, no database row locks
+    SHARDED,
+    // @Version check on Account, conflicting postings are retried with backoff
+    OPTIMISTIC,
+    // SELECT ... FOR UPDATE on both accounts, always in ascending id order
+    PESSIMISTIC,
+    // Conditional UPDATE ... WHERE balance >= amount RETURNING balance, no reads before the write
+    ATOMIC
+}
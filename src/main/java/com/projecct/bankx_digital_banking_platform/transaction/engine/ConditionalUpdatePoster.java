@@ -0,0 +1,109 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyClaim;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ATOMIC concurrency mode. Each leg is one conditional UPDATE ... RETURNING on accounts, so the
+ * insufficient-funds check is race-free in the database and the post-balance goes straight into
+ * the ledger entry without loading the Account entities.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalUpdatePoster {
+
+    private final AccountRepo accountRepo;
+    private final PostingStore postingStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final BalanceCache balanceCache;
+
+    public Posting post(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type,
+                        IdempotencyClaim claim) {
+        boolean debit = type == Transaction.Type.DEBIT || type == Transaction.Type.TRANSFER;
+        boolean credit = type == Transaction.Type.CREDIT || type == Transaction.Type.TRANSFER;
+        if (debit && fromAccountId == null) {
+            throw new RuntimeException("From account not found");
+        }
+        if (credit && toAccountId == null) {
+            throw new RuntimeException("To account not found");
+        }
+        try {
+            return transactionTemplate.execute(status -> apply(fromAccountId, toAccountId, amount, type, debit, credit, claim));
+        } catch (InsufficientFunds e) {
+            // The credit leg ran first and was rolled back, record the rejection on its own
+            return transactionTemplate.execute(status -> write(e.result, fromAccountId, toAccountId, type, claim));
+        }
+    }
+
+    private Posting apply(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type,
+                          boolean debit, boolean credit, IdempotencyClaim claim) {
+        // Lock rows in ascending id order, same rule as the pessimistic mode
+        boolean creditFirst = debit && credit && toAccountId < fromAccountId;
+
+        AccountBalanceView to = null;
+        if (creditFirst) {
+            to = creditLeg(toAccountId, amount);
+        }
+        AccountBalanceView from = null;
+        if (debit) {
+            Optional<AccountBalanceView> debited = accountRepo.debitIfSufficient(fromAccountId, amount);
+            if (debited.isEmpty()) {
+                AccountBalanceView current = accountRepo.findBalanceViewById(fromAccountId)
+                        .orElseThrow(() -> new RuntimeException("From account not found"));
+                PostingResult rejected = new PostingResult(fromAccountId, credit ? toAccountId : null, amount, false,
+                        current.getBalance(), null, current.getOwnerName());
+                if (creditFirst) {
+                    throw new InsufficientFunds(rejected);
+                }
+                return write(rejected, fromAccountId, toAccountId, type, claim);
+            }
+            from = cached(debited.get());
+        }
+        if (credit && !creditFirst) {
+            to = creditLeg(toAccountId, amount);
+        }
+
+        PostingResult result = new PostingResult(debit ? fromAccountId : null, credit ? toAccountId : null, amount, true,
+                from != null ? from.getBalance() : null, to != null ? to.getBalance() : null,
+                from != null ? from.getOwnerName() : null);
+        return write(result, fromAccountId, toAccountId, type, claim);
+    }
+
+    private AccountBalanceView creditLeg(Integer accountId, BigDecimal amount) {
+        return cached(accountRepo.credit(accountId, amount).orElseThrow(() -> new RuntimeException("To account not found")));
+    }
+
+    private AccountBalanceView cached(AccountBalanceView view) {
+        balanceCache.putAfterCommit(view.getId(), view.getBalance(), view.getVersion());
+        return view;
+    }
+
+    private Posting write(PostingResult result, Integer fromAccountId, Integer toAccountId, Transaction.Type type,
+                          IdempotencyClaim claim) {
+        Posting posting = Posting.of(result, fromAccountId, toAccountId, type, referenceIdGenerator.next(), claim);
+        // Balances were already changed by the conditional updates
+        postingStore.write(List.of(posting), false);
+        return posting;
+    }
+
+    private static final class InsufficientFunds extends RuntimeException {
+        private final PostingResult result;
+
+        private InsufficientFunds(PostingResult result) {
+            super(null, null, false, false);
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit write path. Postings from concurrent requests are queued and a single flusher
+ * thread writes them in batches (up to max-batch-size, waiting at most max-wait-ms for a batch
+ * to fill) inside one database transaction, then completes every caller's future. Only the
+ * SHARDED mode posts through it. Once shut down every future it has not flushed is failed, so no
+ * caller is left waiting on a posting that will never be written.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.posting.concurrency-mode", havingValue = "SHARDED", matchIfMissing = true)
+public class GroupCommitter {
+
+    private final PostingStore postingStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public GroupCommitter(PostingStore postingStore,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.posting.group-commit.max-batch-size:200}") int maxBatchSize,
+                          @Value("${app.posting.group-commit.max-wait-ms:2}") long maxWaitMs) {
+        this.postingStore = postingStore;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.flusher = new Thread(this::run, "posting-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public CompletableFuture<Void> submit(Posting posting) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Group committer is shut down"));
+        }
+        Pending pending = new Pending(posting, new CompletableFuture<>());
+        queue.add(pending);
+        // Shut down in between: the flusher and the final drain may both have missed it
+        if (!running && queue.remove(pending)) {
+            pending.future().completeExceptionally(new IllegalStateException("Group committer is shut down"));
+        }
+        return pending.future();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever the flusher did not take (it stopped, was interrupted or timed out) is never written
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.future().completeExceptionally(new IllegalStateException("Group committer is shut down"));
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in group commit loop", e);
+                batch.forEach(p -> p.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            List<Posting> postings = batch.stream().map(Pending::posting).toList();
+            transactionTemplate.executeWithoutResult(status -> postingStore.write(postings));
+            batch.forEach(p -> p.future().complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return;
+            }
+            // One bad posting must not fail the whole group, retry them one by one
+            log.warn("Group commit of {} postings failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> postingStore.write(List.of(pending.posting())));
+                    pending.future().complete(null);
+                } catch (RuntimeException single) {
+                    pending.future().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private record Pending(Posting posting, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyClaim;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Everything the {@link PostingStore} needs to persist one posting: the transaction row,
+ * its audit record and, for successful postings, the ledger entry, outbox event and balance deltas.
+ * A posting made under an Idempotency-Key carries its claim, and the key is completed with it.
+ */
+public record Posting(String referenceId,
+                      Transaction.Type type,
+                      Transaction.Status status,
+                      Integer fromAccountId,
+                      Integer toAccountId,
+                      BigDecimal amount,
+                      Integer debitAccountId,
+                      Integer creditAccountId,
+                      BigDecimal fromBalanceAfter,
+                      BigDecimal toBalanceAfter,
+                      String changedBy,
+                      LocalDateTime createdAt,
+                      IdempotencyClaim idempotencyClaim) {
+
+    public Posting(String referenceId, Transaction.Type type, Transaction.Status status, Integer fromAccountId,
+                   Integer toAccountId, BigDecimal amount, Integer debitAccountId, Integer creditAccountId,
+                   BigDecimal fromBalanceAfter, BigDecimal toBalanceAfter, String changedBy, LocalDateTime createdAt) {
+        this(referenceId, type, status, fromAccountId, toAccountId, amount, debitAccountId, creditAccountId,
+                fromBalanceAfter, toBalanceAfter, changedBy, createdAt, null);
+    }
+
+    public static Posting of(PostingResult result, Integer fromAccountId, Integer toAccountId, Transaction.Type type,
+                             String referenceId) {
+        return of(result, fromAccountId, toAccountId, type, referenceId, null);
+    }
+
+    public static Posting of(PostingResult result, Integer fromAccountId, Integer toAccountId, Transaction.Type type,
+                             String referenceId, IdempotencyClaim idempotencyClaim) {
+        Transaction.Status status = result.approved() ? Transaction.Status.SUCCESS : Transaction.Status.FAILED;
+        String changedBy = !result.approved() || fromAccountId != null ? result.fromOwnerName() : "SYSTEM";
+        return new Posting(referenceId, type, status, fromAccountId, toAccountId, result.amount(),
+                result.debitAccountId(), result.creditAccountId(), result.fromBalanceAfter(), result.toBalanceAfter(),
+                changedBy, LocalDateTime.now(), idempotencyClaim);
+    }
+
+    public boolean succeeded() {
+        return status == Transaction.Status.SUCCESS;
+    }
+}
@@ -0,0 +1,251 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.money.Money;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer posting engine. Accounts are partitioned by id into shards and every shard
+ * is owned by exactly one worker thread holding the in-memory balance table for its accounts,
+ * so balance checks and updates never need a database row lock.
+ * <p>
+ * Cross-shard transfers are always coordinated the same way: the credit account is resolved
+ * first, then the debit leg reserves funds on its shard, then the credit leg is applied on the
+ * other shard. Credits cannot fail once the account is known, so no two-phase protocol is needed.
+ * <p>
+ * The balance table is authoritative for this instance only; balances are written to the
+ * database as relative deltas by the caller. It is only correct while this instance is the sole
+ * writer of balances, which {@link ShardedWriterLock} enforces: while the lock is not held the
+ * engine is {@link #suspend suspended}, drops every balance and rejects postings. Other writes in the same process
+ * (balance adjustments, account deletion) {@link #evict} the accounts they touch. As a backstop the
+ * {@link PostingStore} refuses deltas that overdraw an account, and the callers then evict it.
+ * Balances and amounts are held as {@link Money} and only turned back into BigDecimal for the
+ * {@link PostingResult}.
+ */
+@Slf4j
+@Component
+public class PostingEngine {
+
+    private final AccountRepo accountRepo;
+    private final Shard[] shards;
+    private volatile boolean suspended;
+
+    public PostingEngine(AccountRepo accountRepo,
+                         @Value("${app.posting.shards:0}") int shardCount) {
+        this.accountRepo = accountRepo;
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i);
+        }
+        log.info("Posting engine started with {} shards", count);
+    }
+
+    public PostingResult post(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type) {
+        if (suspended) {
+            throw new IllegalStateException("Postings are suspended, this instance does not hold the SHARDED posting lock");
+        }
+        boolean debit = type == Transaction.Type.DEBIT || type == Transaction.Type.TRANSFER;
+        boolean credit = type == Transaction.Type.CREDIT || type == Transaction.Type.TRANSFER;
+        if (debit && fromAccountId == null) {
+            throw new RuntimeException("From account not found");
+        }
+        if (credit && toAccountId == null) {
+            throw new RuntimeException("To account not found");
+        }
+        Money value = Money.of(amount);
+
+        if (!debit) {
+            Shard shard = shardFor(toAccountId);
+            Money toAfter = shard.call(() -> shard.credit(toAccountId, value));
+            return new PostingResult(null, toAccountId, amount, true, null, toAfter.toBigDecimal(), null);
+        }
+
+        Shard debitShard = shardFor(fromAccountId);
+        if (!credit) {
+            Leg leg = debitShard.call(() -> debitShard.debit(fromAccountId, value));
+            return new PostingResult(fromAccountId, null, amount, leg.applied(), leg.balanceAfter().toBigDecimal(), null, leg.ownerName());
+        }
+
+        Shard creditShard = shardFor(toAccountId);
+        if (debitShard == creditShard) {
+            return debitShard.call(() -> {
+                debitShard.slot(toAccountId);
+                Leg leg = debitShard.debit(fromAccountId, value);
+                if (!leg.applied()) {
+                    return new PostingResult(fromAccountId, toAccountId, amount, false,
+                            leg.balanceAfter().toBigDecimal(), debitShard.slot(toAccountId).balance.toBigDecimal(), leg.ownerName());
+                }
+                Money toAfter = debitShard.credit(toAccountId, value);
+                return new PostingResult(fromAccountId, toAccountId, amount, true,
+                        leg.balanceAfter().toBigDecimal(), toAfter.toBigDecimal(), leg.ownerName());
+            });
+        }
+
+        // Cross-shard: resolve credit side, reserve on debit shard, then apply the credit
+        Money toBefore = creditShard.call(() -> creditShard.slot(toAccountId).balance);
+        Leg leg = debitShard.call(() -> debitShard.debit(fromAccountId, value));
+        if (!leg.applied()) {
+            return new PostingResult(fromAccountId, toAccountId, amount, false,
+                    leg.balanceAfter().toBigDecimal(), toBefore.toBigDecimal(), leg.ownerName());
+        }
+        Money toAfter = creditShard.call(() -> creditShard.credit(toAccountId, value));
+        return new PostingResult(fromAccountId, toAccountId, amount, true,
+                leg.balanceAfter().toBigDecimal(), toAfter.toBigDecimal(), leg.ownerName());
+    }
+
+    // Undo an approved posting whose database write did not commit
+    public void revert(PostingResult result) {
+        if (!result.approved()) {
+            return;
+        }
+        Money amount = Money.of(result.amount());
+        if (result.debitAccountId() != null) {
+            Shard shard = shardFor(result.debitAccountId());
+            shard.call(() -> shard.adjustIfLoaded(result.debitAccountId(), amount));
+        }
+        if (result.creditAccountId() != null) {
+            Shard shard = shardFor(result.creditAccountId());
+            shard.call(() -> shard.adjustIfLoaded(result.creditAccountId(), amount.negate()));
+        }
+    }
+
+    // Drop the cached balance so the next posting reloads it from the database. Inside a transaction
+    // again once it committed, a posting in between would have reloaded the uncommitted balance.
+    public void evict(Integer accountId) {
+        Shard shard = shardFor(accountId);
+        shard.call(() -> shard.slots.remove(accountId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    shard.call(() -> shard.slots.remove(accountId));
+                }
+            });
+        }
+    }
+
+    // Another writer may have changed any balance: reject postings and drop all balances until resumed
+    public void suspend() {
+        suspended = true;
+        for (Shard shard : shards) {
+            shard.call(() -> {
+                shard.slots.clear();
+                return null;
+            });
+        }
+    }
+
+    // Balances are reloaded from the database as accounts are posted to again
+    public void resume() {
+        suspended = false;
+    }
+
+    public boolean suspended() {
+        return suspended;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.worker.shutdown();
+        }
+        for (Shard shard : shards) {
+            shard.worker.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Shard shardFor(Integer accountId) {
+        return shards[Math.floorMod(accountId, shards.length)];
+    }
+
+    private record Leg(boolean applied, Money balanceAfter, String ownerName) {
+    }
+
+    private static final class Slot {
+        private Money balance;
+        private final String ownerName;
+
+        private Slot(Money balance, String ownerName) {
+            this.balance = balance;
+            this.ownerName = ownerName;
+        }
+    }
+
+    private final class Shard {
+
+        private final ExecutorService worker;
+        // Only ever touched from the worker thread
+        private final Map<Integer, Slot> slots = new HashMap<>();
+
+        private Shard(int index) {
+            this.worker = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "posting-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private <T> T call(Supplier<T> task) {
+            try {
+                return CompletableFuture.supplyAsync(task, worker).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        private Slot slot(Integer accountId) {
+            Slot slot = slots.get(accountId);
+            if (slot == null) {
+                AccountBalanceView view = accountRepo.findBalanceViewById(accountId)
+                        .orElseThrow(() -> new RuntimeException("Account not found: " + accountId));
+                slot = new Slot(Money.of(view.getBalance()), view.getOwnerName());
+                slots.put(accountId, slot);
+            }
+            return slot;
+        }
+
+        private Leg debit(Integer accountId, Money amount) {
+            Slot slot = slot(accountId);
+            if (slot.balance.isLessThan(amount)) {
+                return new Leg(false, slot.balance, slot.ownerName);
+            }
+            slot.balance = slot.balance.minus(amount);
+            return new Leg(true, slot.balance, slot.ownerName);
+        }
+
+        private Money credit(Integer accountId, Money amount) {
+            Slot slot = slot(accountId);
+            slot.balance = slot.balance.plus(amount);
+            return slot.balance;
+        }
+
+        private Void adjustIfLoaded(Integer accountId, Money delta) {
+            Slot slot = slots.get(accountId);
+            if (slot != null) {
+                slot.balance = slot.balance.plus(delta);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a posting applied by the {@link PostingEngine}. Balances are the in-memory
+ * values right after this posting, so they can go straight into the ledger entry.
+ */
+public record PostingResult(Integer debitAccountId,
+                            Integer creditAccountId,
+                            BigDecimal amount,
+                            boolean approved,
+                            BigDecimal fromBalanceAfter,
+                            BigDecimal toBalanceAfter,
+                            String fromOwnerName) {
+}
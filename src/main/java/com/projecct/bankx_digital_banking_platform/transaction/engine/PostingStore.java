@@ -0,0 +1,243 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalLeg;
+import com.projecct.bankx_digital_banking_platform.exceptions.IdempotencyConflictException;
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.kafka.event.TransactionPosted;
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEventsWritten;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyClaim;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes postings with plain JDBC batches. Every table gets one batched insert per call
+ * (rewritten into multi-row inserts by the driver) and all balance deltas of the batch are
+ * applied with a single UPDATE, so a hot account is touched once per batch instead of once
+ * per posting. Ids are taken from the entities' pooled sequences by {@link PooledSequenceIds}.
+ * Must be called inside a transaction, after the balances of the postings were updated in it:
+ * the account journal numbers its rows under those row locks. Idempotency-Keys of the postings are
+ * completed in the same transaction, so a key is done exactly when its posting committed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostingStore {
+
+    // The delta comes back too: a debited account must not end up below zero
+    private static final String APPLY_DELTAS =
+            "UPDATE accounts a SET balance = COALESCE(a.balance, 0) + d.delta, version = a.version + 1 " +
+            "FROM unnest(?::int[], ?::numeric[]) AS d(id, delta) WHERE a.id = d.id " +
+            "RETURNING a.id, a.balance, a.version, d.delta";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, from_account_id, to_account_id, amount, type, status, reference_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_AUDIT =
+            "INSERT INTO audit_logs (id, entity_name, entity_id, action, changed_by, old_value, new_value, timestamp) " +
+            "VALUES (?, 'Transaction', ?, 'CREATE', ?, 'N/A', ?, ?)";
+
+    private static final String INSERT_LEDGER =
+            "INSERT INTO ledger_entries (id, from_account_id, to_account_id, description, txn_type, transaction_ref_id, " +
+            "amount, to_account_balance_after, from_balance_after, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Only while the reservation is still this request's: a retry that took over the lease owns the key now
+    private static final String COMPLETE_IDEMPOTENCY_KEY =
+            "UPDATE idempotency_keys SET status = ?, reference_id = ? " +
+            "WHERE idempotency_key = ? AND lease_token = ? AND status IS NULL";
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_key, type, payload, status, created_at) " +
+            "VALUES (?, 'Transaction', ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceCache balanceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventCodec eventCodec;
+    private final AccountJournal accountJournal;
+    private final PooledSequenceIds sequenceIds;
+
+    public void write(List<Posting> postings) {
+        write(postings, true);
+    }
+
+    public void write(List<Posting> postings, boolean applyDeltas) {
+        List<Posting> succeeded = postings.stream().filter(Posting::succeeded).toList();
+
+        Map<Integer, BigDecimal> balances = applyDeltas ? applyDeltas(succeeded) : null;
+
+        long[] transactionIds = sequenceIds.next("transactions_seq", postings.size());
+        long[] auditIds = sequenceIds.next("audit_logs_seq", postings.size());
+        List<Object[]> transactions = new ArrayList<>(postings.size());
+        List<Object[]> audits = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            Posting p = postings.get(i);
+            Timestamp createdAt = Timestamp.valueOf(p.createdAt());
+            transactions.add(new Object[]{transactionIds[i], p.fromAccountId(), p.toAccountId(), p.amount(), p.type().name(),
+                    p.status().name(), p.referenceId(), createdAt});
+            audits.add(new Object[]{auditIds[i], p.referenceId(), p.changedBy(), p.status().name(), createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions);
+        jdbcTemplate.batchUpdate(INSERT_AUDIT, audits);
+        completeIdempotencyKeys(postings);
+
+        if (succeeded.isEmpty()) {
+            return;
+        }
+        long[] ledgerIds = sequenceIds.next("ledger_entries_seq", succeeded.size());
+        BigDecimal[][] balancesAfter = balances != null ? balancesAfter(succeeded, balances) : null;
+        List<Object[]> ledger = new ArrayList<>(succeeded.size());
+        for (int i = 0; i < succeeded.size(); i++) {
+            Posting p = succeeded.get(i);
+            BigDecimal fromBalanceAfter = balancesAfter != null ? balancesAfter[i][0] : p.fromBalanceAfter();
+            BigDecimal toBalanceAfter = balancesAfter != null ? balancesAfter[i][1] : p.toBalanceAfter();
+            ledger.add(new Object[]{ledgerIds[i], p.fromAccountId(), p.toAccountId(), description(p), p.type().name(),
+                    p.referenceId(), p.amount(), toBalanceAfter, fromBalanceAfter, Timestamp.valueOf(p.createdAt())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_LEDGER, ledger);
+        List<JournalLeg> legs = journalLegs(succeeded);
+        accountJournal.append(legs);
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, outboxRows(succeeded, legs.size()));
+        eventPublisher.publishEvent(OutboxEventsWritten.INSTANCE);
+    }
+
+    // Throws when a reservation was taken over, which rolls the posting back: the retry posts instead
+    private void completeIdempotencyKeys(List<Posting> postings) {
+        List<Object[]> keys = new ArrayList<>();
+        for (Posting p : postings) {
+            IdempotencyClaim claim = p.idempotencyClaim();
+            if (claim != null) {
+                keys.add(new Object[]{p.status().name(), p.referenceId(), claim.key(), claim.leaseToken()});
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(COMPLETE_IDEMPOTENCY_KEY, keys);
+        for (int count : updated) {
+            if (count == 0) {
+                throw new IdempotencyConflictException("Idempotency-Key reservation was taken over by a retry");
+            }
+        }
+    }
+
+    private Map<Integer, BigDecimal> applyDeltas(List<Posting> succeeded) {
+        // Sorted by id so concurrent writers update rows in the same order
+        Map<Integer, BigDecimal> deltas = new TreeMap<>();
+        for (Posting p : succeeded) {
+            if (p.debitAccountId() != null) {
+                deltas.merge(p.debitAccountId(), p.amount().negate(), BigDecimal::add);
+            }
+            if (p.creditAccountId() != null) {
+                deltas.merge(p.creditAccountId(), p.amount(), BigDecimal::add);
+            }
+        }
+        return applyBalanceDeltas(deltas);
+    }
+
+    // Debit and credit balance after each posting, walked back from the post-balances the UPDATE returned.
+    // The engine's in-memory balances are not used: they can be stale against the rows, as the journal's are not
+    private static BigDecimal[][] balancesAfter(List<Posting> succeeded, Map<Integer, BigDecimal> balances) {
+        Map<Integer, BigDecimal> running = new HashMap<>(balances);
+        BigDecimal[][] after = new BigDecimal[succeeded.size()][];
+        for (int i = succeeded.size() - 1; i >= 0; i--) {
+            Posting p = succeeded.get(i);
+            after[i] = new BigDecimal[]{running.get(p.debitAccountId()), running.get(p.creditAccountId())};
+            if (p.debitAccountId() != null) {
+                running.computeIfPresent(p.debitAccountId(), (id, balance) -> balance.add(p.amount()));
+            }
+            if (p.creditAccountId() != null) {
+                running.computeIfPresent(p.creditAccountId(), (id, balance) -> balance.subtract(p.amount()));
+            }
+        }
+        return after;
+    }
+
+    /**
+     * Applies all deltas in one UPDATE and returns the post-balance of every account that was found.
+     * The new balances are written through to the {@link BalanceCache} once the transaction commits.
+     * Throws {@link BalanceOverdrawnException} if a net debit left an account below zero; the caller's
+     * transaction must then roll back.
+     */
+    public Map<Integer, BigDecimal> applyBalanceDeltas(Map<Integer, BigDecimal> deltas) {
+        Map<Integer, BigDecimal> balances = new HashMap<>();
+        if (deltas.isEmpty()) {
+            return balances;
+        }
+        List<Integer> overdrawn = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(APPLY_DELTAS);
+            ps.setArray(1, con.createArrayOf("int4", deltas.keySet().toArray()));
+            ps.setArray(2, con.createArrayOf("numeric", deltas.values().toArray()));
+            return ps;
+        }, rs -> {
+            BigDecimal balance = rs.getBigDecimal(2);
+            if (balance.signum() < 0 && rs.getBigDecimal(4).signum() < 0) {
+                overdrawn.add(rs.getInt(1));
+            }
+            balances.put(rs.getInt(1), balance);
+            balanceCache.putAfterCommit(rs.getInt(1), balance, rs.getLong(3));
+        });
+        if (!overdrawn.isEmpty()) {
+            throw new BalanceOverdrawnException(overdrawn);
+        }
+        return balances;
+    }
+
+    // One leg per account side, in posting order
+    private List<JournalLeg> journalLegs(List<Posting> succeeded) {
+        List<JournalLeg> legs = new ArrayList<>(succeeded.size() * 2);
+        for (Posting p : succeeded) {
+            if (p.debitAccountId() != null) {
+                legs.add(new JournalLeg(p.debitAccountId(), p.referenceId(), p.type().name(), p.creditAccountId(),
+                        p.amount().negate(), p.createdAt()));
+            }
+            if (p.creditAccountId() != null) {
+                legs.add(new JournalLeg(p.creditAccountId(), p.referenceId(), p.type().name(), p.debitAccountId(),
+                        p.amount(), p.createdAt()));
+            }
+        }
+        return legs;
+    }
+
+    private String description(Posting p) {
+        return "Transaction " + p.type() + " from "
+                + (p.fromAccountId() != null ? p.fromAccountId() : "N/A") + " to "
+                + (p.toAccountId() != null ? p.toAccountId() : "N/A");
+    }
+
+    // One event per account leg, keyed by that account, so every account's events stay in order on
+    // its partition whether it sent or received the money
+    private List<Object[]> outboxRows(List<Posting> succeeded, int legCount) {
+        long[] outboxIds = sequenceIds.next("outbox_events_seq", legCount);
+        List<Object[]> outbox = new ArrayList<>(legCount);
+        for (Posting p : succeeded) {
+            Timestamp createdAt = Timestamp.valueOf(p.createdAt());
+            for (Integer accountId : new Integer[]{p.debitAccountId(), p.creditAccountId()}) {
+                if (accountId != null) {
+                    outbox.add(new Object[]{outboxIds[outbox.size()], p.referenceId(), String.valueOf(accountId),
+                            p.type() + "_INITIATED", payload(p, accountId), OutboxEvent.Status.PENDING.name(), createdAt});
+                }
+            }
+        }
+        return outbox;
+    }
+
+    private String payload(Posting p, Integer accountId) {
+        return eventCodec.write(new TransactionPosted(p.referenceId(), p.type().name(),
+                p.fromAccountId(), p.toAccountId(), p.amount(), p.createdAt(), accountId));
+    }
+}
@@ -0,0 +1,119 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Enforces the single writer the {@link PostingEngine} relies on: in SHARDED mode an instance only
+ * starts if it gets a session advisory lock, held on one dedicated connection for its lifetime, so
+ * a second instance against the same database fails at startup instead of overdrawing accounts from
+ * stale balances. Scale out with ATOMIC mode instead. When the lock connection is lost the
+ * {@link PostingEngine} is suspended, since another instance may have posted in between, and the
+ * lock is taken again; the engine resumes with balances reloaded from the database once it is held.
+ * While it is not, postings are rejected and the instance reports DOWN.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.posting.concurrency-mode", havingValue = "SHARDED", matchIfMissing = true)
+public class ShardedWriterLock implements HealthIndicator {
+
+    // Two-int advisory lock key, kept apart from the outbox lane locks
+    static final int NAMESPACE = 0x0B0D;
+    static final int KEY = 1;
+
+    private final DataSource dataSource;
+    private final PostingEngine postingEngine;
+    private Connection connection;
+
+    public ShardedWriterLock(DataSource dataSource, PostingEngine postingEngine) throws SQLException {
+        this.dataSource = dataSource;
+        this.postingEngine = postingEngine;
+        if (!acquire()) {
+            throw new IllegalStateException("Another instance holds the SHARDED posting lock; SHARDED mode allows a "
+                    + "single writer per database, use app.posting.concurrency-mode=ATOMIC to run several instances");
+        }
+        log.info("Holding the SHARDED posting lock");
+    }
+
+    @Scheduled(fixedDelayString = "${app.posting.writer-lock.check-interval-ms:10000}")
+    public synchronized void verify() {
+        try {
+            if (connection != null && connection.isValid(5)) {
+                return;
+            }
+            if (!postingEngine.suspended()) {
+                log.warn("SHARDED posting lock connection lost, postings are suspended until the lock is taken again");
+                postingEngine.suspend();
+            }
+            if (acquire()) {
+                log.info("Holding the SHARDED posting lock again, postings resumed");
+                postingEngine.resume();
+            } else {
+                log.error("Another instance holds the SHARDED posting lock, postings stay suspended");
+            }
+        } catch (SQLException e) {
+            log.warn("Could not take the SHARDED posting lock again: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Health health() {
+        return postingEngine.suspended()
+                ? Health.down().withDetail("reason", "SHARDED posting lock not held, postings are rejected").build()
+                : Health.up().build();
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        close();
+    }
+
+    private synchronized boolean acquire() throws SQLException {
+        close();
+        Connection candidate = dataSource.getConnection();
+        try {
+            candidate.setAutoCommit(true);
+            try (PreparedStatement ps = candidate.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                ps.setInt(1, NAMESPACE);
+                ps.setInt(2, KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        connection = candidate;
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            candidate.close();
+            throw e;
+        }
+        candidate.close();
+        return false;
+    }
+
+    // Unlocked explicitly: a pooled connection goes back to the pool with its session, and the lock with it
+    private void close() {
+        if (connection == null) {
+            return;
+        }
+        try (Connection held = connection; PreparedStatement ps = held.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+            ps.setInt(1, NAMESPACE);
+            ps.setInt(2, KEY);
+            ps.execute();
+        } catch (SQLException e) {
+            log.debug("Releasing the SHARDED posting lock failed: {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
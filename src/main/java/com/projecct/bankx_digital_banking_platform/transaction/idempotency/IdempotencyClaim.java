@@ -0,0 +1,6 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+// A reserved Idempotency-Key (stored, caller-scoped form) and the lease token of the request holding it.
+// The posting that carries it completes the key in its own transaction, see PostingStore.
+public record IdempotencyClaim(String key, String leaseToken) {
+}
@@ -0,0 +1,34 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // Scoped to the caller, see IdempotencyService
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String key;
+
+    private String fingerprint; // operation + parameters the key was first used with
+
+    @Enumerated(EnumType.STRING)
+    private Transaction.Status status; // null while the original request is still running
+
+    private String referenceId;
+
+    @Column(length = 36)
+    private String leaseToken; // request holding the reservation, replaced when an expired lease is taken over
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,33 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRepo extends JpaRepository<IdempotencyRecord, String> {
+
+    // Returns 0 when the key is taken, unless it is an unfinished reservation of the same request whose lease ran out
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, lease_token, created_at) " +
+            "VALUES (:key, :fingerprint, :token, now()) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET lease_token = EXCLUDED.lease_token, created_at = now() " +
+            "WHERE idempotency_keys.status IS NULL AND idempotency_keys.fingerprint = EXCLUDED.fingerprint " +
+            "AND idempotency_keys.created_at < now() - :leaseSeconds * interval '1 second'", nativeQuery = true)
+    int reserve(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("token") String token,
+                @Param("leaseSeconds") long leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.leaseToken = :token AND r.status IS NULL")
+    int release(@Param("key") String key, @Param("token") String token);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,156 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+import com.projecct.bankx_digital_banking_platform.common.dto.LedgerEntry;
+import com.projecct.bankx_digital_banking_platform.exceptions.IdempotencyConflictException;
+import com.projecct.bankx_digital_banking_platform.exceptions.InsufficientBalanceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Deduplicates posting requests carrying an Idempotency-Key header. Completed keys are served
+ * from a bounded in-memory LRU (with TTL) and backed by the idempotency_keys table, so a client
+ * retry returns the original result without touching any account. Keys are scoped to the
+ * authenticated caller: the same header value from two users are two keys, and one user can
+ * neither replay nor block another's request. They are stored as a SHA-256 of caller and key.
+ * <p>
+ * A key is reserved in the table before the posting runs, which also protects against the same
+ * key arriving at two app instances at once. The posting completes the key (status and reference id)
+ * in its own database transaction, so a committed posting always leaves a completed key behind. The
+ * reservation is a lease: if the request has not posted within lease-seconds, a retry takes the key
+ * over, and the original request's posting then fails and rolls back instead of posting twice.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    @FunctionalInterface
+    public interface PostingCall {
+        // claim is null for requests without an Idempotency-Key
+        LedgerEntry.TransactionDto call(IdempotencyClaim claim) throws InsufficientBalanceException;
+    }
+
+    private final IdempotencyRepo idempotencyRepo;
+    private final Duration ttl;
+    private final long leaseSeconds;
+    private final Map<String, CachedResult> cache;
+
+    public IdempotencyService(IdempotencyRepo idempotencyRepo,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${app.idempotency.lease-seconds:30}") long leaseSeconds) {
+        this.idempotencyRepo = idempotencyRepo;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.leaseSeconds = leaseSeconds;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public LedgerEntry.TransactionDto execute(String principal, String idempotencyKey, String fingerprint, PostingCall call)
+            throws InsufficientBalanceException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return call.call(null);
+        }
+        String key = scope(principal, idempotencyKey);
+
+        LedgerEntry.TransactionDto cached = fromCache(key, fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+
+        String token = UUID.randomUUID().toString();
+        if (idempotencyRepo.reserve(key, fingerprint, token, leaseSeconds) == 0) {
+            return replay(key, fingerprint);
+        }
+
+        LedgerEntry.TransactionDto result;
+        try {
+            result = call.call(new IdempotencyClaim(key, token));
+        } catch (InsufficientBalanceException | RuntimeException e) {
+            // Nothing was posted, let the client retry with the same key
+            idempotencyRepo.release(key, token);
+            throw e;
+        }
+        putInCache(key, fingerprint, result);
+        return result;
+    }
+
+    // Keys older than the TTL may be reused
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = idempotencyRepo.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private LedgerEntry.TransactionDto replay(String key, String fingerprint) {
+        IdempotencyRecord existing = idempotencyRepo.findById(key)
+                .orElseThrow(() -> new IdempotencyConflictException("Idempotency-Key is being released, retry the request"));
+        checkFingerprint(existing.getFingerprint(), fingerprint);
+        if (existing.getStatus() == null) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        }
+        LedgerEntry.TransactionDto result = new LedgerEntry.TransactionDto(existing.getStatus(), existing.getReferenceId());
+        putInCache(key, existing.getFingerprint(), result);
+        return result;
+    }
+
+    private LedgerEntry.TransactionDto fromCache(String key, String fingerprint) {
+        CachedResult hit;
+        synchronized (cache) {
+            hit = cache.get(key);
+            if (hit != null && hit.expiresAt() < System.currentTimeMillis()) {
+                cache.remove(key);
+                hit = null;
+            }
+        }
+        if (hit == null) {
+            return null;
+        }
+        checkFingerprint(hit.fingerprint(), fingerprint);
+        return hit.result();
+    }
+
+    private void putInCache(String key, String fingerprint, LedgerEntry.TransactionDto result) {
+        synchronized (cache) {
+            cache.put(key, new CachedResult(fingerprint, result, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    // Fixed length whatever the caller name and key, so it always fits the key column
+    static String scope(String principal, String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(principal).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(idempotencyKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void checkFingerprint(String original, String fingerprint) {
+        if (!fingerprint.equals(original)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private record CachedResult(String fingerprint, LedgerEntry.TransactionDto result, long expiresAt) {
+    }
+}
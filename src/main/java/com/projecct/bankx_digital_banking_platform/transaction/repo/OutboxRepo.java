@@ -1,11 +1,77 @@
 package com.projecct.bankx_digital_banking_platform.transaction.repo;
 
 import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
-import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OutboxRepo extends JpaRepository<OutboxEvent,Long> {
-    List<OutboxEvent> findByStatus(Transaction.Status status);
+
+    boolean existsByStatus(OutboxEvent.Status status);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    // Ids follow insertion order closely enough, the first row on the status index is the oldest
+    Optional<OutboxEvent> findFirstByStatusOrderByIdAsc(OutboxEvent.Status status);
+
+    // Transaction-scoped, released on commit/rollback. Only one relay at a time may claim from a lane
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:namespace, :lane)", nativeQuery = true)
+    boolean tryLockLane(@Param("namespace") int namespace, @Param("lane") int lane);
+
+    // Oldest PENDING events of one lane (hash of the event key), SKIP LOCKED so other work on the rows never blocks us.
+    // Keys with an older event in flight or waiting in RETRY are left alone until that event is done, to keep per-key order.
+    @Query(value = "SELECT * FROM outbox_events e WHERE e.status = 'PENDING' " +
+            "AND (hashtext(COALESCE(e.event_key, e.aggregate_id)) & 2147483647) % :lanes = :lane " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_events r WHERE r.status IN ('RETRY', 'IN_FLIGHT') AND r.id < e.id " +
+            "  AND COALESCE(r.event_key, r.aggregate_id) = COALESCE(e.event_key, e.aggregate_id)) " +
+            "ORDER BY e.id LIMIT :limit FOR UPDATE OF e SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimLane(@Param("lane") int lane, @Param("lanes") int lanes, @Param("limit") int limit);
+
+    // Ends a claim (SUCCESS, or back to PENDING), only while it is still the claim identified by claimedUntil
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.sentAt = :sentAt, e.claimedUntil = null " +
+            "WHERE e.id IN :ids AND e.status = com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent.Status.IN_FLIGHT " +
+            "AND e.claimedUntil = :claimedUntil")
+    int finishClaim(@Param("ids") Collection<Long> ids,
+                    @Param("status") OutboxEvent.Status status,
+                    @Param("sentAt") LocalDateTime sentAt,
+                    @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // A failed send: RETRY with its due time, or DEAD_LETTER
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.lastError = :lastError, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.claimedUntil = null " +
+            "WHERE e.id = :id AND e.status = com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent.Status.IN_FLIGHT " +
+            "AND e.claimedUntil = :claimedUntil")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") OutboxEvent.Status status,
+                   @Param("attempts") int attempts,
+                   @Param("lastError") String lastError,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Claims whose relay died or hung past the deadline become claimable again
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'PENDING', claimed_until = NULL " +
+            "WHERE status = 'IN_FLIGHT' AND claimed_until < :now", nativeQuery = true)
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+
+    // RETRY rows whose backoff has elapsed become claimable again
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'PENDING' WHERE id IN (:ids) AND status = 'RETRY'", nativeQuery = true)
+    int releaseRetries(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'PENDING' WHERE status = 'RETRY' AND next_attempt_at <= :now", nativeQuery = true)
+    int releaseDueRetries(@Param("now") LocalDateTime now);
 }
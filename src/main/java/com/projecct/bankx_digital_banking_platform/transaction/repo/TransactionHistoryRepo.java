@@ -0,0 +1,121 @@
+package com.projecct.bankx_digital_banking_platform.transaction.repo;
+
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transaction reads that must not depend on how much history an account has. Pages are keyset
+ * based on (created_at, id): each side of the account is read newest first, stopping after the
+ * page size, instead of skipping an OFFSET of rows. Exports go through a forward-only cursor
+ * with a fixed fetch size, so only one fetch is held in memory at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionHistoryRepo {
+
+    private static final String COLUMNS =
+            "id, reference_id, type, status, amount, from_account_id, to_account_id, created_at";
+
+    // Transfers within one account are read by the first branch only
+    private static final String PAGE = withAccountNumbers(
+            "(SELECT " + COLUMNS + " FROM transactions WHERE from_account_id = ? %1$s " +
+            "  ORDER BY created_at DESC, id DESC LIMIT ?) " +
+            "UNION ALL " +
+            "(SELECT " + COLUMNS + " FROM transactions WHERE to_account_id = ? AND from_account_id IS DISTINCT FROM ? %1$s " +
+            "  ORDER BY created_at DESC, id DESC LIMIT ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?",
+            "t.created_at DESC, t.id DESC");
+
+    private static final String BEFORE = "AND (created_at, id) < (?, ?)";
+
+    // Half-open [from, to) on the raw column, one index range scan per side of the account
+    private static final String RANGE = withAccountNumbers(
+            "(SELECT " + COLUMNS + " FROM transactions WHERE from_account_id = ? AND created_at >= ? AND created_at < ?) " +
+            "UNION ALL " +
+            "(SELECT " + COLUMNS + " FROM transactions WHERE to_account_id = ? AND from_account_id IS DISTINCT FROM ? " +
+            "  AND created_at >= ? AND created_at < ?)",
+            "t.created_at, t.id");
+
+    private static final String EXPORT = withAccountNumbers("SELECT " + COLUMNS + " FROM transactions", "t.id");
+
+    private static final RowMapper<TransactionRow> ROW_MAPPER = TransactionHistoryRepo::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Newest first, strictly before (beforeCreatedAt, beforeId) when given
+    public List<TransactionRow> findPage(Integer accountId, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        boolean keyset = beforeCreatedAt != null && beforeId != null;
+        String sql = String.format(PAGE, keyset ? BEFORE : "");
+        return jdbcTemplate.query(sql, ps -> {
+            int i = 1;
+            ps.setInt(i++, accountId);
+            if (keyset) {
+                ps.setTimestamp(i++, Timestamp.valueOf(beforeCreatedAt));
+                ps.setLong(i++, beforeId);
+            }
+            ps.setInt(i++, limit);
+            ps.setInt(i++, accountId);
+            ps.setInt(i++, accountId);
+            if (keyset) {
+                ps.setTimestamp(i++, Timestamp.valueOf(beforeCreatedAt));
+                ps.setLong(i++, beforeId);
+            }
+            ps.setInt(i++, limit);
+            ps.setInt(i, limit);
+        }, ROW_MAPPER);
+    }
+
+    // Oldest first
+    public List<TransactionRow> findByCreatedAtRange(Integer accountId, LocalDateTime from, LocalDateTime to) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        return jdbcTemplate.query(RANGE, ROW_MAPPER, accountId, start, end, accountId, accountId, start, end);
+    }
+
+    // The driver only honours the fetch size inside a transaction, callers must hold one
+    public void streamAll(int fetchSize, Consumer<TransactionRow> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            sink.accept(mapRow(rs, 0));
+        });
+    }
+
+    // Account numbers are joined onto the (already limited) rows, in the same statement
+    private static String withAccountNumbers(String rows, String orderBy) {
+        return "SELECT t.*, f.account_number AS from_account_number, a.account_number AS to_account_number " +
+                "FROM (" + rows + ") t " +
+                "LEFT JOIN accounts f ON f.id = t.from_account_id " +
+                "LEFT JOIN accounts a ON a.id = t.to_account_id " +
+                "ORDER BY " + orderBy;
+    }
+
+    private static TransactionRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String type = rs.getString("type");
+        String status = rs.getString("status");
+        return new TransactionRow(
+                rs.getLong("id"),
+                rs.getString("reference_id"),
+                type != null ? Transaction.Type.valueOf(type) : null,
+                status != null ? Transaction.Status.valueOf(status) : null,
+                rs.getBigDecimal("amount"),
+                (Integer) rs.getObject("from_account_id"),
+                rs.getString("from_account_number"),
+                (Integer) rs.getObject("to_account_id"),
+                rs.getString("to_account_number"),
+                rs.getObject("created_at", LocalDateTime.class));
+    }
+}
@@ -5,15 +5,26 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface TransactionRepo extends JpaRepository<Transaction,Long> {
-    @Query("SELECT t FROM Transaction t WHERE (t.fromAccount.id = :accountId OR t.toAccount.id = :accountId) AND DATE(t.createdAt) BETWEEN :start AND :end")
-    List<Transaction> findByAccountIdAndDateRange(@Param("accountId") Integer accountId, @Param("start") LocalDate start, @Param("end") LocalDate end);
+    // Row projections: one statement each, account numbers come from outer joins and no entity is loaded
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRow(" +
+            "t.id, t.referenceId, t.type, t.status, t.amount, f.id, f.accountNumber, a.id, a.accountNumber, t.createdAt) " +
+            "FROM Transaction t LEFT JOIN t.fromAccount f LEFT JOIN t.toAccount a WHERE t.fromAccount.id = :accountId OR t.toAccount.id = :accountId " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionRow> findRowsByAccountId(@Param("accountId") Integer accountId);
 
-    List<Transaction> findAllByFromAccountIdOrToAccountId(Integer accountId, Integer accountId1);
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRow(" +
+            "t.id, t.referenceId, t.type, t.status, t.amount, f.id, f.accountNumber, a.id, a.accountNumber, t.createdAt) " +
+            "FROM Transaction t LEFT JOIN t.fromAccount f LEFT JOIN t.toAccount a WHERE t.referenceId = :referenceId")
+    Optional<TransactionRow> findRowByReferenceId(@Param("referenceId") String referenceId);
+
+    @Query("SELECT new com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRow(" +
+            "t.id, t.referenceId, t.type, t.status, t.amount, f.id, f.accountNumber, a.id, a.accountNumber, t.createdAt) " +
+            "FROM Transaction t LEFT JOIN t.fromAccount f LEFT JOIN t.toAccount a ORDER BY t.id")
+    List<TransactionRow> findAllRows();
 
     Optional<Transaction> findByReferenceId(String referenceId);
 }
@@ -0,0 +1,19 @@
+package com.projecct.bankx_digital_banking_platform.transaction.repo;
+
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat transaction read model, accounts are referenced by id and account number only
+public record TransactionRow(Long id,
+                             String referenceId,
+                             Transaction.Type type,
+                             Transaction.Status status,
+                             BigDecimal amount,
+                             Integer fromAccountId,
+                             String fromAccountNumber,
+                             Integer toAccountId,
+                             String toAccountNumber,
+                             LocalDateTime createdAt) {
+}
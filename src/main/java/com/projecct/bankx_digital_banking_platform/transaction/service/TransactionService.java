@@ -1,17 +1,26 @@
 package com.projecct.bankx_digital_banking_platform.transaction.service;
 
-import com.projecct.bankx_digital_banking_platform.account.Account;
-import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
-import com.projecct.bankx_digital_banking_platform.audit.Audit;
-import com.projecct.bankx_digital_banking_platform.audit.AuditRepo;
 import com.projecct.bankx_digital_banking_platform.common.dto.LedgerEntry;
-import com.projecct.bankx_digital_banking_platform.common.dto.repo.LedgerRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
 import com.projecct.bankx_digital_banking_platform.exceptions.InsufficientBalanceException;
-import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
 import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
-import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.AccountLockingPoster;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.BalanceOverdrawnException;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConcurrencyMode;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConditionalUpdatePoster;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.GroupCommitter;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingResult;
+import com.projecct.bankx_digital_banking_platform.transaction.idempotency.IdempotencyClaim;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionHistoryRepo;
 import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRepo;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -20,155 +29,146 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 
 @Service
 public class TransactionService {
 
     private final TransactionRepo transactionRepo;
-    private final AccountRepo accountRepo;
-    private final AuditRepo auditRepo;
-    private final LedgerRepo ledgerRepo;
-    private final OutboxRepo outboxRepo;
+    private final TransactionHistoryRepo historyRepo;
+    private final PostingEngine postingEngine;
+    // Only present in SHARDED mode
+    private final ObjectProvider<GroupCommitter> groupCommitter;
+    private final AccountLockingPoster lockingPoster;
+    private final ConditionalUpdatePoster conditionalUpdatePoster;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final ConcurrencyMode concurrencyMode;
+    private final MeterRegistry meterRegistry;
+    private final int maxPageSize;
+    private final int exportFetchSize;
 
     @Autowired
-    public TransactionService(TransactionRepo transactionRepo, AccountRepo accountRepo,
-                              AuditRepo auditRepo, LedgerRepo ledgerRepo, OutboxRepo outboxRepo) {
+    public TransactionService(TransactionRepo transactionRepo, TransactionHistoryRepo historyRepo, PostingEngine postingEngine,
+                              ObjectProvider<GroupCommitter> groupCommitter, AccountLockingPoster lockingPoster,
+                              ConditionalUpdatePoster conditionalUpdatePoster,
+                              ReferenceIdGenerator referenceIdGenerator,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.posting.concurrency-mode:SHARDED}") ConcurrencyMode concurrencyMode,
+                              @Value("${app.history.max-page-size:200}") int maxPageSize,
+                              @Value("${app.history.export-fetch-size:1000}") int exportFetchSize) {
         this.transactionRepo = transactionRepo;
-        this.accountRepo = accountRepo;
-        this.auditRepo = auditRepo;
-        this.ledgerRepo = ledgerRepo;
-        this.outboxRepo = outboxRepo;
+        this.historyRepo = historyRepo;
+        this.postingEngine = postingEngine;
+        this.groupCommitter = groupCommitter;
+        this.lockingPoster = lockingPoster;
+        this.conditionalUpdatePoster = conditionalUpdatePoster;
+        this.referenceIdGenerator = referenceIdGenerator;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyMode = concurrencyMode;
+        this.maxPageSize = maxPageSize;
+        this.exportFetchSize = exportFetchSize;
     }
 
-    @Transactional
-    public LedgerEntry.TransactionDto createTransaction(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type) {
-        Account fromAccount = null;
-        Account toAccount = null;
-
-        if (fromAccountId != null) {
-            fromAccount = accountRepo.findById(fromAccountId)
-                    .orElseThrow(() -> new RuntimeException("From account not found"));
-        }
-        if (toAccountId != null) {
-            toAccount = accountRepo.findById(toAccountId)
-                    .orElseThrow(() -> new RuntimeException("To account not found"));
+    // claim is the caller's Idempotency-Key reservation, or null; the key is completed with the posting
+    public LedgerEntry.TransactionDto createTransaction(Integer fromAccountId, Integer toAccountId, BigDecimal amount,
+                                                        Transaction.Type type, IdempotencyClaim claim) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Failed attempts are timed too, under their own outcome, so they neither vanish nor skew successes
+        String outcome = "error";
+        try {
+            Posting posting = switch (concurrencyMode) {
+                case SHARDED -> postSharded(fromAccountId, toAccountId, amount, type, claim);
+                case OPTIMISTIC -> lockingPoster.postOptimistic(fromAccountId, toAccountId, amount, type, claim);
+                case PESSIMISTIC -> lockingPoster.postPessimistic(fromAccountId, toAccountId, amount, type, claim);
+                case ATOMIC -> conditionalUpdatePoster.post(fromAccountId, toAccountId, amount, type, claim);
+            };
+            outcome = posting.succeeded() ? "success" : "rejected";
+            return new LedgerEntry.TransactionDto(posting.status(), posting.referenceId());
+        } finally {
+            sample.stop(meterRegistry.timer("bankx.posting.duration", "mode", concurrencyMode.name(), "outcome", outcome));
         }
+    }
 
-        // Check balance for debit/transfer
-        if (fromAccount != null && (type == Transaction.Type.DEBIT || type == Transaction.Type.TRANSFER)) {
-            if (fromAccount.getBalance().compareTo(amount) < 0) {
-                Transaction failedTxn = saveTransaction(fromAccount, toAccount, amount, type, Transaction.Status.FAILED);
-                saveAudit(failedTxn, fromAccount.getCustomer().getName(), "FAILED");
-                return new LedgerEntry.TransactionDto(failedTxn.getStatus(), failedTxn.getReferenceId());
+    private Posting postSharded(Integer fromAccountId, Integer toAccountId, BigDecimal amount, Transaction.Type type,
+                                IdempotencyClaim claim) {
+        // Balance check and update happen on the shard workers, no row locks are taken here
+        PostingResult result = postingEngine.post(fromAccountId, toAccountId, amount, type);
+        Posting posting = Posting.of(result, fromAccountId, toAccountId, type, referenceIdGenerator.next(), claim);
+
+        try {
+            groupCommitter.getObject().submit(posting).join();
+        } catch (CompletionException e) {
+            // Give the funds back to the engine, the posting never reached the database
+            postingEngine.revert(result);
+            if (e.getCause() instanceof BalanceOverdrawnException overdrawn) {
+                // The engine's balance was behind the database, reload it on the next posting
+                overdrawn.getAccountIds().forEach(postingEngine::evict);
             }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-
-        // Update balances
-        if (type == Transaction.Type.DEBIT || type == Transaction.Type.TRANSFER) {
-            fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-            accountRepo.save(fromAccount);
-        }
-
-        if (type == Transaction.Type.CREDIT || type == Transaction.Type.TRANSFER) {
-            toAccount.setBalance(toAccount.getBalance().add(amount));
-            accountRepo.save(toAccount);
-        }
-
-        Transaction transaction = saveTransaction(fromAccount, toAccount, amount, type, Transaction.Status.SUCCESS);
-        saveAudit(transaction, fromAccount != null ? fromAccount.getCustomer().getName() : "SYSTEM", "SUCCESS");
-        saveLedger(transaction, fromAccount, toAccount, amount);
-        saveOutboxEvent(transaction, fromAccount, toAccount, amount);
-
-        return new LedgerEntry.TransactionDto(transaction.getStatus(), transaction.getReferenceId());
+        return posting;
     }
 
-    @Transactional
     @CacheEvict(value = "transactions", key = "#accountId")
-    public LedgerEntry.TransactionDto deposit(Integer accountId, BigDecimal amount) {
-        return createTransaction(null, accountId, amount, Transaction.Type.CREDIT);
+    public LedgerEntry.TransactionDto deposit(Integer accountId, BigDecimal amount, IdempotencyClaim claim) {
+        return createTransaction(null, accountId, amount, Transaction.Type.CREDIT, claim);
     }
 
-    @Transactional
     @CacheEvict(value = "transactions", key = "#accountId")
-    public LedgerEntry.TransactionDto withdraw(Integer accountId, BigDecimal amount) {
-        return createTransaction(accountId, null, amount, Transaction.Type.DEBIT);
+    public LedgerEntry.TransactionDto withdraw(Integer accountId, BigDecimal amount, IdempotencyClaim claim) {
+        return createTransaction(accountId, null, amount, Transaction.Type.DEBIT, claim);
     }
 
-    @Transactional
     @CacheEvict(value = "transactions", allEntries = true)
-    public LedgerEntry.TransactionDto transfer(Integer fromAccountId, Integer toAccountId, BigDecimal amount) throws InsufficientBalanceException {
-        return createTransaction(fromAccountId, toAccountId, amount, Transaction.Type.TRANSFER);
+    public LedgerEntry.TransactionDto transfer(Integer fromAccountId, Integer toAccountId, BigDecimal amount,
+                                               IdempotencyClaim claim) throws InsufficientBalanceException {
+        return createTransaction(fromAccountId, toAccountId, amount, Transaction.Type.TRANSFER, claim);
     }
 
     @Cacheable(value = "transactionByRef", key = "#referenceId")
-    public Transaction getTransactionByReferenceId(String referenceId) {
-        return transactionRepo.findByReferenceId(referenceId)
+    public TransactionRow getTransactionByReferenceId(String referenceId) {
+        return transactionRepo.findRowByReferenceId(referenceId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
     }
 
     @Cacheable(value = "transactions", key = "#accountId")
-    public List<Transaction> getTransactionsByAccount(Integer accountId) {
-        return transactionRepo.findAllByFromAccountIdOrToAccountId(accountId, accountId);
-    }
-
-    public List<Transaction> getAllTransactions() {
-        return transactionRepo.findAll();
-    }
-
-    @Cacheable(value = "transactionsByDate", key = "#accountId + '_' + #start.toString() + '_' + #end.toString()")
-    public List<Transaction> getTransactionsByDateRange(Integer accountId, LocalDate start, LocalDate end) {
-        return transactionRepo.findByAccountIdAndDateRange(accountId, start, end);
+    public List<TransactionRow> getTransactionsByAccount(Integer accountId) {
+        return transactionRepo.findRowsByAccountId(accountId);
     }
 
-    // ----------------- Helper Methods -----------------
-
-    private Transaction saveTransaction(Account fromAccount, Account toAccount, BigDecimal amount,
-                                        Transaction.Type type, Transaction.Status status) {
-        Transaction transaction = new Transaction();
-        transaction.setFromAccount(fromAccount);
-        transaction.setToAccount(toAccount);
-        transaction.setAmount(amount);
-        transaction.setType(type);
-        transaction.setStatus(status);
-        return transactionRepo.save(transaction);
+    // Newest first; pass the previous page's nextCursor to continue
+    public TransactionHistoryPage getHistoryPage(Integer accountId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        TransactionHistoryPage.Cursor before = cursor != null && !cursor.isBlank() ? TransactionHistoryPage.Cursor.decode(cursor) : null;
+        // One row past the page tells whether there is a next page
+        List<TransactionRow> rows = historyRepo.findPage(accountId,
+                before != null ? before.createdAt() : null, before != null ? before.id() : null, size + 1);
+        if (rows.size() <= size) {
+            return new TransactionHistoryPage(rows, null);
+        }
+        List<TransactionRow> items = rows.subList(0, size);
+        TransactionRow last = items.get(size - 1);
+        return new TransactionHistoryPage(items, new TransactionHistoryPage.Cursor(last.createdAt(), last.id()).encode());
     }
 
-    private void saveAudit(Transaction transaction, String changedBy, String newValue) {
-        Audit audit = new Audit();
-        audit.setEntityName("Transaction");
-        audit.setEntityId(transaction.getReferenceId());
-        audit.setAction("CREATE");
-        audit.setChangedBy(changedBy);
-        audit.setOldValue("N/A");
-        audit.setNewValue(newValue);
-        auditRepo.save(audit);
+    // Runs in a read-only transaction so the driver streams with the fetch size instead of buffering the result
+    @Transactional(readOnly = true)
+    public void exportTransactions(Consumer<TransactionRow> sink) {
+        historyRepo.streamAll(exportFetchSize, sink);
     }
 
-    private void saveLedger(Transaction transaction, Account fromAccount, Account toAccount, BigDecimal amount) {
-        LedgerEntry ledgerEntry = new LedgerEntry();
-        ledgerEntry.setAmount(amount);
-        ledgerEntry.setFromAccount(fromAccount);
-        ledgerEntry.setToAccount(toAccount);
-        ledgerEntry.setTxnType(transaction.getType());
-        if (fromAccount != null) ledgerEntry.setFromBalanceAfter(fromAccount.getBalance());
-        if (toAccount != null) ledgerEntry.setToAccountBalanceAfter(toAccount.getBalance());
-        ledgerEntry.setTransactionRefId(transaction.getReferenceId());
-        ledgerEntry.setDescription("Transaction " + transaction.getType() + " from "
-                + (fromAccount != null ? fromAccount.getId() : "N/A") + " to "
-                + (toAccount != null ? toAccount.getId() : "N/A"));
-        ledgerRepo.save(ledgerEntry);
+    public List<TransactionRow> getAllTransactions() {
+        return transactionRepo.findAllRows();
     }
 
-    private void saveOutboxEvent(Transaction transaction, Account fromAccount, Account toAccount, BigDecimal amount) {
-        OutboxEvent event = new OutboxEvent();
-        event.setAggregateType("Transaction");
-        event.setAggregateId(transaction.getReferenceId());
-        event.setType(transaction.getType() + "_INITIATED");
-        event.setPayload("{\"fromAccount\":\"" + (fromAccount != null ? fromAccount.getId() : null)
-                + "\",\"toAccount\":\"" + (toAccount != null ? toAccount.getId() : null)
-                + "\",\"amount\":" + amount + "}");
-        event.setStatus(Transaction.Status.PENDING);
-        outboxRepo.save(event);
+    @Cacheable(value = "transactionsByDate", key = "#accountId + '_' + #start.toString() + '_' + #end.toString()")
+    public List<TransactionRow> getTransactionsByDateRange(Integer accountId, LocalDate start, LocalDate end) {
+        // Whole days, start through end inclusive
+        return historyRepo.findByCreatedAtRange(accountId, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
     }
 }
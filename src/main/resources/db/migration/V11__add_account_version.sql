@@ -0,0 +1,2 @@
+-- Optimistic locking column for accounts, also bumped by every balance delta
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+CREATE TABLE idempotency_keys (
+                                  idempotency_key VARCHAR(128) PRIMARY KEY,
+                                  fingerprint VARCHAR(255),
+                                  status VARCHAR(20),
+                                  reference_id VARCHAR(255),
+                                  created_at TIMESTAMP
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
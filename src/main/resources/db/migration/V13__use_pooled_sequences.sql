@@ -0,0 +1,28 @@
+-- Move from SERIAL/IDENTITY ids to sequences allocated in blocks of 50 (Hibernate pooled-lo optimizer),
+-- which lets Hibernate batch inserts. Column defaults point at the new sequences so plain SQL inserts
+-- keep working; each of those simply consumes one block.
+
+CREATE SEQUENCE accounts_seq INCREMENT BY 50;
+SELECT setval('accounts_seq', COALESCE((SELECT MAX(id) FROM accounts), 0) + 1, false);
+ALTER TABLE accounts ALTER COLUMN id SET DEFAULT nextval('accounts_seq');
+DROP SEQUENCE accounts_id_seq;
+
+CREATE SEQUENCE transactions_seq INCREMENT BY 50;
+SELECT setval('transactions_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 1, false);
+ALTER TABLE transactions ALTER COLUMN id SET DEFAULT nextval('transactions_seq');
+DROP SEQUENCE transactions_id_seq;
+
+CREATE SEQUENCE ledger_entries_seq INCREMENT BY 50;
+SELECT setval('ledger_entries_seq', COALESCE((SELECT MAX(id) FROM ledger_entries), 0) + 1, false);
+ALTER TABLE ledger_entries ALTER COLUMN id SET DEFAULT nextval('ledger_entries_seq');
+DROP SEQUENCE ledger_entries_id_seq;
+
+CREATE SEQUENCE audit_logs_seq INCREMENT BY 50;
+SELECT setval('audit_logs_seq', COALESCE((SELECT MAX(id) FROM audit_logs), 0) + 1, false);
+ALTER TABLE audit_logs ALTER COLUMN id SET DEFAULT nextval('audit_logs_seq');
+DROP SEQUENCE audit_logs_id_seq;
+
+CREATE SEQUENCE outbox_events_seq INCREMENT BY 50;
+SELECT setval('outbox_events_seq', COALESCE((SELECT MAX(id) FROM outbox_events), 0) + 1, false);
+ALTER TABLE outbox_events ALTER COLUMN id SET DEFAULT nextval('outbox_events_seq');
+DROP SEQUENCE outbox_events_id_seq;
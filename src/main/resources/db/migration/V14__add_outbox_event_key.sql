@@ -0,0 +1,3 @@
+-- Kafka record key of an outbox event (account id), events with the same key are published in id order
+ALTER TABLE outbox_events ADD COLUMN event_key VARCHAR(64);
+UPDATE outbox_events SET event_key = aggregate_id WHERE event_key IS NULL;
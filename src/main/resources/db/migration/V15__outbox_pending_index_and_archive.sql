@@ -0,0 +1,24 @@
+-- The relay only ever scans PENDING rows in id order, keep that index as small as the backlog
+CREATE INDEX idx_outbox_events_pending ON outbox_events (id) WHERE status = 'PENDING';
+
+-- Sent rows waiting to be archived, ordered by age
+CREATE INDEX idx_outbox_events_sent_at ON outbox_events (sent_at) WHERE status = 'SUCCESS';
+
+-- Queue table with constant churn, vacuum it long before the default 20% dead-row threshold
+ALTER TABLE outbox_events SET (autovacuum_vacuum_scale_factor = 0.01, autovacuum_analyze_scale_factor = 0.02);
+
+-- Sent events past the retention window, moved here by OutboxArchiver
+CREATE TABLE outbox_events_archive (
+                                       id BIGINT PRIMARY KEY,
+                                       aggregate_type VARCHAR(255),
+                                       aggregate_id VARCHAR(255),
+                                       event_key VARCHAR(64),
+                                       type VARCHAR(255),
+                                       payload TEXT,
+                                       status VARCHAR(20),
+                                       created_at TIMESTAMP,
+                                       sent_at TIMESTAMP,
+                                       archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_outbox_events_archive_created_at ON outbox_events_archive (created_at);
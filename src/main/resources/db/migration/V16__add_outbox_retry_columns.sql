@@ -0,0 +1,12 @@
+-- Publish retries: failed events wait as RETRY until next_attempt_at, then go back to PENDING
+ALTER TABLE outbox_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP;
+ALTER TABLE outbox_events ADD COLUMN last_error TEXT;
+
+ALTER TABLE outbox_events_archive ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events_archive ADD COLUMN last_error TEXT;
+
+-- Events that failed before retries existed get another chance
+UPDATE outbox_events SET status = 'RETRY', next_attempt_at = now() WHERE status = 'FAILED';
+
+CREATE INDEX idx_outbox_events_retry ON outbox_events (next_attempt_at) WHERE status = 'RETRY';
@@ -0,0 +1,9 @@
+-- Aggregates a consumer has already handled, so redelivered records do not repeat side effects
+CREATE TABLE processed_events (
+                                  consumer VARCHAR(64) NOT NULL,
+                                  aggregate_id VARCHAR(255) NOT NULL,
+                                  processed_at TIMESTAMP NOT NULL DEFAULT now(),
+                                  PRIMARY KEY (consumer, aggregate_id)
+);
+
+CREATE INDEX idx_processed_events_processed_at ON processed_events (processed_at);
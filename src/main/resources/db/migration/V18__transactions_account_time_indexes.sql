@@ -0,0 +1,4 @@
+-- Account history and date-range reads scan each side of an account in time order.
+-- id is the tie-breaker of the history keyset, carrying it avoids a sort on equal timestamps.
+CREATE INDEX idx_transactions_from_account_created ON transactions (from_account_id, created_at, id);
+CREATE INDEX idx_transactions_to_account_created ON transactions (to_account_id, created_at, id);
@@ -0,0 +1,28 @@
+-- One row per account leg, numbered per account. seq is gap-free and only ever appended to,
+-- so statements and history pages are a single range scan on the primary key.
+CREATE TABLE account_journal (
+                                 account_id INT NOT NULL,
+                                 seq BIGINT NOT NULL,
+                                 reference_id VARCHAR(255) NOT NULL,
+                                 entry_type VARCHAR(20) NOT NULL,
+                                 counterparty_account_id INT,
+                                 amount NUMERIC(19,2) NOT NULL,
+                                 balance_after NUMERIC(19,2),
+                                 created_at TIMESTAMP NOT NULL,
+                                 PRIMARY KEY (account_id, seq)
+);
+
+-- Existing history, one leg per side of every ledger entry in posting order
+INSERT INTO account_journal (account_id, seq, reference_id, entry_type, counterparty_account_id, amount, balance_after, created_at)
+SELECT account_id,
+       row_number() OVER (PARTITION BY account_id ORDER BY created_at, id, leg),
+       reference_id, entry_type, counterparty_account_id, amount, balance_after, created_at
+FROM (SELECT from_account_id AS account_id, id, 0 AS leg, transaction_ref_id AS reference_id, txn_type AS entry_type,
+             to_account_id AS counterparty_account_id, -amount AS amount, from_balance_after AS balance_after,
+             COALESCE(created_at, now()) AS created_at
+      FROM ledger_entries WHERE from_account_id IS NOT NULL
+      UNION ALL
+      SELECT to_account_id, id, 1, transaction_ref_id, txn_type,
+             from_account_id, amount, to_account_balance_after,
+             COALESCE(created_at, now())
+      FROM ledger_entries WHERE to_account_id IS NOT NULL) legs;
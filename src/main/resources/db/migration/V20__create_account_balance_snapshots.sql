@@ -0,0 +1,12 @@
+-- Closing balance of every account at each period boundary, with the last journal seq it covers.
+-- Balances at any other instant are the nearest snapshot plus the journal legs after that seq.
+CREATE TABLE account_balance_snapshots (
+                                           account_id INT NOT NULL,
+                                           as_of TIMESTAMP NOT NULL,
+                                           balance NUMERIC(19,2) NOT NULL,
+                                           seq BIGINT NOT NULL,
+                                           created_at TIMESTAMP NOT NULL DEFAULT now(),
+                                           PRIMARY KEY (account_id, as_of)
+);
+
+CREATE INDEX idx_account_balance_snapshots_as_of ON account_balance_snapshots (as_of);
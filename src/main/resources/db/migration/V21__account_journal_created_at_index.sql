@@ -0,0 +1,3 @@
+-- Balance snapshots and balance-as-of reads sum an account's legs over a time window. created_at
+-- is stamped before commit, so it is not ordered like seq and cannot be found from the primary key.
+CREATE INDEX idx_account_journal_account_created ON account_journal (account_id, created_at);
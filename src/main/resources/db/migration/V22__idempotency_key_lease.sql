@@ -0,0 +1,4 @@
+-- A reservation belongs to the request holding its lease_token. Once a still unfinished reservation
+-- is older than the lease (app.idempotency.lease-seconds) a retry of the same request takes it over,
+-- so a crashed instance no longer blocks the key until the TTL purge.
+ALTER TABLE idempotency_keys ADD COLUMN lease_token VARCHAR(36);
@@ -0,0 +1,8 @@
+-- The relay claims a batch as IN_FLIGHT in a short transaction and sends it outside of any transaction.
+-- A claim not finished by claimed_until (relay died or hung) goes back to PENDING.
+ALTER TABLE outbox_events ADD COLUMN claimed_until TIMESTAMP;
+
+CREATE INDEX idx_outbox_events_in_flight ON outbox_events (claimed_until) WHERE status = 'IN_FLIGHT';
+
+-- Schemas generated by Hibernate carry an enum check on status that predates IN_FLIGHT
+ALTER TABLE outbox_events DROP CONSTRAINT IF EXISTS outbox_events_status_check;
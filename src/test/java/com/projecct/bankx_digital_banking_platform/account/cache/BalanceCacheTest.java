@@ -0,0 +1,46 @@
+package com.projecct.bankx_digital_banking_platform.account.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCacheTest {
+
+    @Test
+    void olderVersionsNeverOverwriteNewerOnes() {
+        BalanceCache cache = new BalanceCache();
+        assertTrue(cache.put(42, new BigDecimal("100.00"), 3));
+        assertFalse(cache.put(42, new BigDecimal("90.00"), 2));
+        assertFalse(cache.put(42, new BigDecimal("80.00"), 3));
+
+        BalanceSnapshot snapshot = cache.get(42);
+        assertEquals(10_000, snapshot.balanceMinor());
+        assertEquals(3, snapshot.version());
+        assertEquals(new BigDecimal("100.00"), snapshot.balance());
+
+        assertTrue(cache.put(42, new BigDecimal("75.50"), 4));
+        assertEquals(new BigDecimal("75.50"), cache.get(42).balance());
+    }
+
+    @Test
+    void survivesGrowthAndRemovals() {
+        BalanceCache cache = new BalanceCache();
+        for (int id = 1; id <= 20_000; id++) {
+            cache.put(id, BigDecimal.valueOf(id), 1);
+        }
+        for (int id = 1; id <= 20_000; id += 2) {
+            cache.invalidate(id);
+        }
+        for (int id = 1; id <= 20_000; id++) {
+            BalanceSnapshot snapshot = cache.get(id);
+            if (id % 2 == 1) {
+                assertNull(snapshot);
+            } else {
+                assertEquals(id * 100L, snapshot.balanceMinor());
+            }
+        }
+        assertNull(cache.get(20_001));
+    }
+}
@@ -0,0 +1,130 @@
+package com.projecct.bankx_digital_banking_platform.account.journal;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.GroupCommitter;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingResult;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Many callers posting through the shards and the group committer at once, so postings reach the
+// database in a different order than the engine applied them
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class AccountJournalConcurrencyTest {
+
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+    private static final int THREADS = 16;
+    private static final int POSTINGS_PER_THREAD = 200;
+
+    private List<Integer> accounts;
+
+    @BeforeEach
+    void setUp() {
+        accounts = TestDatabase.createAccounts(4, OPENING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.deleteAccounts(accounts);
+    }
+
+    @Test
+    void runningBalanceFollowsTheSequence() throws Exception {
+        JdbcTemplate jdbc = TestDatabase.jdbcTemplate();
+        AccountRepo accountRepo = mock(AccountRepo.class);
+        when(accountRepo.findBalanceViewById(anyInt())).thenAnswer(inv -> Optional.of(openingView(inv.getArgument(0))));
+        PostingEngine engine = new PostingEngine(accountRepo, 2);
+        PostingStore store = new PostingStore(jdbc, mock(BalanceCache.class), mock(ApplicationEventPublisher.class),
+                new EventCodec(), new AccountJournal(jdbc), new PooledSequenceIds(jdbc));
+        GroupCommitter committer = new GroupCommitter(store, TestDatabase.transactionTemplate(), 50, 2);
+
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                done.add(callers.submit(() -> {
+                    for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                        Integer to = accounts.get(random.nextInt(accounts.size()));
+                        Integer from = i % 5 == 0 ? null : accounts.get(random.nextInt(accounts.size()));
+                        if (to.equals(from)) {
+                            continue;
+                        }
+                        Transaction.Type type = from == null ? Transaction.Type.CREDIT : Transaction.Type.TRANSFER;
+                        BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(5_000), 2);
+                        PostingResult result = engine.post(from, to, amount, type);
+                        committer.submit(Posting.of(result, from, to, type, "IT-" + UUID.randomUUID())).join();
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            callers.shutdown();
+            committer.shutdown();
+            engine.shutdown();
+        }
+
+        for (Integer account : accounts) {
+            List<Map<String, Object>> legs = jdbc.queryForList(
+                    "SELECT seq, amount, balance_after FROM account_journal WHERE account_id = ? ORDER BY seq", account);
+            BigDecimal running = OPENING;
+            long seq = 0;
+            for (Map<String, Object> leg : legs) {
+                assertEquals(++seq, ((Number) leg.get("seq")).longValue());
+                running = running.add((BigDecimal) leg.get("amount"));
+                assertEquals(running, leg.get("balance_after"), "account " + account + " seq " + seq);
+            }
+            assertEquals(running, jdbc.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account));
+        }
+    }
+
+    private static AccountBalanceView openingView(Integer id) {
+        return new AccountBalanceView() {
+            public Integer getId() {
+                return id;
+            }
+
+            public BigDecimal getBalance() {
+                return OPENING;
+            }
+
+            public Long getVersion() {
+                return 0L;
+            }
+
+            public String getOwnerName() {
+                return "Test customer";
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.projecct.bankx_digital_banking_platform.account.repo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projecct.bankx_digital_banking_platform.account.Account;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountViewTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void serializesWithNestedOwnerOnly() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        AccountView view = new AccountView(1, "123456789012", Account.AccountType.SAVINGS, new BigDecimal("85430.50"),
+                7L, customerId, "John Doe");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(view));
+
+        assertEquals(1, json.get("id").asInt());
+        assertEquals("SAVINGS", json.get("accountType").asText());
+        assertEquals(customerId.toString(), json.get("customer").get("id").asText());
+        assertEquals("John Doe", json.get("customer").get("name").asText());
+        assertEquals(2, json.get("customer").size());
+        assertFalse(json.has("version"));
+        assertFalse(json.has("customerId"));
+        assertFalse(json.has("customerName"));
+    }
+
+    @Test
+    void accountWithoutOwnerHasNullCustomer() throws Exception {
+        AccountView view = new AccountView(2, "000000000002", Account.AccountType.WALLET, BigDecimal.ZERO, 0L, null, null);
+
+        assertTrue(objectMapper.readTree(objectMapper.writeValueAsString(view)).get("customer").isNull());
+    }
+
+    @Test
+    void newerBalanceKeepsTheRest() {
+        AccountView view = new AccountView(1, "123456789012", Account.AccountType.SAVINGS, BigDecimal.TEN, 7L, null, null);
+
+        AccountView updated = view.withBalance(new BigDecimal("12.50"), 9);
+
+        assertEquals(new BigDecimal("12.50"), updated.balance());
+        assertEquals(9L, updated.version());
+        assertEquals(view.accountNumber(), updated.accountNumber());
+    }
+}
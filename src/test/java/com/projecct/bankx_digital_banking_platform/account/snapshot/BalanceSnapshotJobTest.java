@@ -0,0 +1,57 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BalanceSnapshotJobTest {
+
+    private static final Duration DAY = Duration.ofHours(24);
+
+    @Test
+    void boundariesAlignToMidnight() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 14, 17, 42);
+
+        assertEquals(LocalDateTime.of(2025, 3, 14, 0, 0), BalanceSnapshotJob.boundaryAtOrBefore(time, DAY));
+        assertEquals(LocalDateTime.of(2025, 3, 14, 12, 0), BalanceSnapshotJob.boundaryAtOrBefore(time, Duration.ofHours(6)));
+    }
+
+    @Test
+    void catchUpIsCappedToTheMostRecentPeriods() {
+        LocalDateTime target = LocalDateTime.of(2025, 3, 14, 0, 0);
+
+        assertEquals(List.of(target), BalanceSnapshotJob.boundaries(null, target, DAY, 31));
+        assertEquals(List.of(target.minusDays(1), target),
+                BalanceSnapshotJob.boundaries(target.minusDays(1), target, DAY, 31));
+        assertEquals(List.of(target.minusDays(2), target.minusDays(1), target),
+                BalanceSnapshotJob.boundaries(target.minusDays(40), target, DAY, 3));
+    }
+
+    @Test
+    void snapshotsEveryAccountBatchOncePerBoundary() {
+        BalanceSnapshotStore store = mock(BalanceSnapshotStore.class);
+        when(store.latestAsOf()).thenReturn(null);
+        when(store.snapshotBatch(any(), anyInt(), anyInt())).thenReturn(500, 1000, null);
+        BalanceSnapshotJob job = new BalanceSnapshotJob(store, 24, 5, 500, 31);
+
+        job.snapshotDue();
+        job.snapshotDue();
+
+        verify(store).snapshotBatch(any(), eq(0), eq(500));
+        verify(store).snapshotBatch(any(), eq(500), eq(500));
+        verify(store).snapshotBatch(any(), eq(1000), eq(500));
+        verify(store, times(1)).latestAsOf();
+    }
+
+    @Test
+    void periodMustDivideTheDay() {
+        assertThrows(IllegalArgumentException.class, () -> new BalanceSnapshotJob(mock(BalanceSnapshotStore.class), 7, 5, 500, 31));
+    }
+}
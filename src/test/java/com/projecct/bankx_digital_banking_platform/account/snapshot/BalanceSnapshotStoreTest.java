@@ -0,0 +1,91 @@
+package com.projecct.bankx_digital_banking_platform.account.snapshot;
+
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalLeg;
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class BalanceSnapshotStoreTest {
+
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    private final JdbcTemplate jdbc = TestDatabase.jdbcTemplate();
+    private final TransactionTemplate tx = TestDatabase.transactionTemplate();
+    private final AccountJournal journal = new AccountJournal(jdbc);
+    private final BalanceSnapshotStore store = new BalanceSnapshotStore(jdbc);
+
+    private Integer accountId;
+
+    @BeforeEach
+    void setUp() {
+        accountId = TestDatabase.createAccounts(1, OPENING).get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.deleteAccounts(List.of(accountId));
+    }
+
+    @Test
+    void snapshotsPlusLaterLegsMatchTheLiveBalance() {
+        // Three days of legs posted out of time order, as stamped-before-commit postings land
+        Random random = new Random(42);
+        List<JournalLeg> legs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            LocalDateTime createdAt = DAY_ONE.plusMinutes(random.nextInt(3 * 24 * 60));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(20_000) - 10_000, 2);
+            legs.add(new JournalLeg(accountId, "IT-" + UUID.randomUUID(), "ADJUSTMENT", null, amount, createdAt));
+        }
+        Collections.shuffle(legs, random);
+        for (JournalLeg leg : legs) {
+            tx.executeWithoutResult(status -> {
+                jdbc.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", leg.amount(), accountId);
+                journal.append(List.of(leg));
+            });
+        }
+
+        for (int day = 1; day <= 3; day++) {
+            LocalDateTime boundary = DAY_ONE.plusDays(day);
+            store.snapshotBatch(boundary, accountId - 1, 1);
+
+            BigDecimal snapshot = jdbc.queryForObject("SELECT balance FROM account_balance_snapshots " +
+                    "WHERE account_id = ? AND as_of = ?", BigDecimal.class, accountId, boundary);
+            assertEquals(expectedAt(legs, boundary, false), snapshot, "snapshot at " + boundary);
+        }
+
+        LocalDateTime midDay = DAY_ONE.plusDays(1).plusHours(13);
+        assertEquals(expectedAt(legs, midDay, true), store.balanceAsOf(accountId, midDay).balance());
+
+        BigDecimal live = jdbc.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        BalanceAsOf now = store.balanceAsOf(accountId, DAY_ONE.plusDays(10));
+        assertEquals(DAY_ONE.plusDays(3), now.snapshotAt());
+        assertEquals(live, now.balance());
+    }
+
+    private static BigDecimal expectedAt(List<JournalLeg> legs, LocalDateTime at, boolean inclusive) {
+        BigDecimal balance = OPENING;
+        for (JournalLeg leg : legs) {
+            if (leg.createdAt().isBefore(at) || inclusive && leg.createdAt().equals(at)) {
+                balance = balance.add(leg.amount());
+            }
+        }
+        return balance;
+    }
+}
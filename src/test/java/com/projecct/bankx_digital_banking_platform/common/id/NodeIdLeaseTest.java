@@ -0,0 +1,72 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class NodeIdLeaseTest {
+
+    @Test
+    void instancesClaimDistinctNodeIds() throws Exception {
+        NodeIdLease first = new NodeIdLease(TestDatabase.dataSource(), "");
+        NodeIdLease second = new NodeIdLease(TestDatabase.dataSource(), "");
+        try {
+            assertNotEquals(first.nodeId(), second.nodeId());
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    void pinnedNodeIdHeldElsewhereFailsStartup() throws Exception {
+        NodeIdLease first = new NodeIdLease(TestDatabase.dataSource(), "1023");
+        try {
+            assertEquals(1023, first.nodeId());
+            assertThrows(IllegalStateException.class, () -> new NodeIdLease(TestDatabase.dataSource(), "1023"));
+        } finally {
+            first.release();
+        }
+        NodeIdLease again = new NodeIdLease(TestDatabase.dataSource(), "1023");
+        again.release();
+    }
+
+    @Test
+    void lostNodeIdStopsIdsUntilANodeIsLeasedAgain() throws Exception {
+        NodeIdLease pinned = new NodeIdLease(TestDatabase.dataSource(), "1022");
+        NodeIdLease free = new NodeIdLease(TestDatabase.dataSource(), "");
+        long freeNode = free.nodeId();
+        ReferenceIdGenerator ids = new LeasedReferenceIdGenerator(pinned);
+        assertNotNull(ids.next());
+        // Both lock connections die and other instances take their node ids before the next check
+        terminateHolderOf(1022);
+        terminateHolderOf(freeNode);
+        NodeIdLease thief = new NodeIdLease(TestDatabase.dataSource(), "1022");
+        NodeIdLease other = new NodeIdLease(TestDatabase.dataSource(), String.valueOf(freeNode));
+        try {
+            pinned.verify();
+            assertThrows(IllegalStateException.class, ids::next);
+            free.verify();
+            assertNotEquals(freeNode, free.nodeId());
+
+            thief.release();
+            pinned.verify();
+            assertEquals(1022, pinned.nodeId());
+            assertNotNull(ids.next());
+        } finally {
+            pinned.release();
+            free.release();
+            thief.release();
+            other.release();
+        }
+    }
+
+    private static void terminateHolderOf(long nodeId) {
+        TestDatabase.jdbcTemplate().query("SELECT pg_terminate_backend(pid, 5000) FROM pg_locks " +
+                "WHERE locktype = 'advisory' AND classid = ? AND objid = ? AND objsubid = 2 AND granted",
+                rs -> { }, NodeIdLease.NAMESPACE, nodeId);
+    }
+}
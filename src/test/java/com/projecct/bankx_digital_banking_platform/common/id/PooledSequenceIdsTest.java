@@ -0,0 +1,65 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PooledSequenceIdsTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PooledSequenceIds ids = new PooledSequenceIds(jdbcTemplate);
+    // What nextval would return next per sequence, stepping by the allocation size
+    private final Map<String, Long> sequences = new HashMap<>();
+
+    PooledSequenceIdsTest() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(inv -> {
+            String sequence = inv.getArgument(2);
+            int blocks = inv.getArgument(3);
+            List<Long> starts = new ArrayList<>();
+            for (int i = 0; i < blocks; i++) {
+                long start = sequences.getOrDefault(sequence, 1L);
+                sequences.put(sequence, start + PooledSequenceIds.ALLOCATION_SIZE);
+                starts.add(start);
+            }
+            return starts;
+        });
+    }
+
+    @Test
+    void idsComeFromOneBlockUntilItIsUsedUp() {
+        assertArrayEquals(range(1, 30), ids.next("transactions_seq", 30));
+        assertArrayEquals(range(31, 50), ids.next("transactions_seq", 20));
+        assertArrayEquals(range(51, 55), ids.next("transactions_seq", 5));
+
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void largeRequestFetchesAllBlocksInOneQuery() {
+        ids.next("outbox_events_seq", 10);
+
+        assertArrayEquals(range(11, 130), ids.next("outbox_events_seq", 120));
+        verify(jdbcTemplate).queryForList(anyString(), eq(Long.class), eq("outbox_events_seq"), eq(2));
+    }
+
+    @Test
+    void sequencesHaveTheirOwnBlocks() {
+        ids.next("transactions_seq", 3);
+
+        assertArrayEquals(range(1, 3), ids.next("audit_logs_seq", 3));
+        assertArrayEquals(range(4, 6), ids.next("transactions_seq", 3));
+    }
+
+    private static long[] range(long first, long last) {
+        return LongStream.rangeClosed(first, last).toArray();
+    }
+}
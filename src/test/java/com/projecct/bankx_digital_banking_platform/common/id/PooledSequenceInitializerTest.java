@@ -0,0 +1,26 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PooledSequenceInitializerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void onlySequencesBehindTheirTableAreMoved() {
+        // Every table holds ids up to 120; accounts_seq was created by ddl-auto at 1, the others are ahead
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(id), 0)"), eq(Long.class))).thenReturn(120L);
+        when(jdbcTemplate.queryForObject(contains("is_called"), eq(Long.class))).thenReturn(151L);
+        when(jdbcTemplate.queryForObject(endsWith("FROM accounts_seq"), eq(Long.class))).thenReturn(1L);
+
+        new PooledSequenceInitializer(jdbcTemplate, mock(EntityManagerFactory.class)).alignSequences();
+
+        verify(jdbcTemplate).queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, "accounts_seq", 121L);
+        verify(jdbcTemplate, times(1)).queryForObject(startsWith("SELECT setval"), eq(Long.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput and collisions of the old TXN-yyyyMMddHHmmss-NNNN reference ids vs
+ * {@link SnowflakeReferenceIdGenerator}, on one instance and on two instances sharing or not
+ * sharing a node id. Not picked up by surefire; run the main method from the IDE or with
+ * {@code java -cp target/classes:target/test-classes ...ReferenceIdBenchmark}.
+ */
+public class ReferenceIdBenchmark {
+
+    private static final int OPERATIONS = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    public static void main(String[] args) {
+        for (int round = 1; round <= ROUNDS; round++) {
+            SnowflakeReferenceIdGenerator snowflake = new SnowflakeReferenceIdGenerator(1);
+
+            long start = System.nanoTime();
+            int oldSink = timestamped(OPERATIONS);
+            long oldNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int snowflakeSink = snowflake(snowflake, OPERATIONS);
+            long snowflakeNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: timestamp+random %.1f ns/op, Snowflake %.1f ns/op (%d)%n", round,
+                    (double) oldNanos / OPERATIONS, (double) snowflakeNanos / OPERATIONS, oldSink ^ snowflakeSink);
+        }
+
+        // Collisions among the same number of ids, issued as fast as possible
+        int ids = 200_000;
+        System.out.printf("collisions in %,d ids: timestamp+random %,d, Snowflake %,d%n", ids,
+                ids - distinct(ReferenceIdBenchmark::oldReferenceId, ids),
+                ids - distinct(new SnowflakeReferenceIdGenerator(1)::next, ids));
+
+        // Two instances interleaving, as two app nodes would against the same table
+        System.out.printf("collisions across two instances: same node id %,d, distinct node ids %,d%n",
+                ids - distinct(interleaved(new SnowflakeReferenceIdGenerator(0), new SnowflakeReferenceIdGenerator(0)), ids),
+                ids - distinct(interleaved(new SnowflakeReferenceIdGenerator(0), new SnowflakeReferenceIdGenerator(1)), ids));
+    }
+
+    // The scheme the generator replaced
+    private static String oldReferenceId() {
+        return "TXN-" + TIMESTAMP.format(LocalDateTime.now()) + "-" + (ThreadLocalRandom.current().nextInt(9000) + 1000);
+    }
+
+    private static int timestamped(int operations) {
+        int sink = 0;
+        for (int i = 0; i < operations; i++) {
+            sink += oldReferenceId().hashCode();
+        }
+        return sink;
+    }
+
+    private static int snowflake(SnowflakeReferenceIdGenerator generator, int operations) {
+        int sink = 0;
+        for (int i = 0; i < operations; i++) {
+            sink += generator.next().hashCode();
+        }
+        return sink;
+    }
+
+    private static ReferenceIdGenerator interleaved(ReferenceIdGenerator a, ReferenceIdGenerator b) {
+        boolean[] flip = new boolean[1];
+        return () -> (flip[0] = !flip[0]) ? a.next() : b.next();
+    }
+
+    private static int distinct(ReferenceIdGenerator generator, int ids) {
+        Set<String> seen = new HashSet<>(ids * 2);
+        for (int i = 0; i < ids; i++) {
+            seen.add(generator.next());
+        }
+        return seen.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.projecct.bankx_digital_banking_platform.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeReferenceIdGeneratorTest {
+
+    @Test
+    void idsAreStrictlyIncreasingAndSortAsStrings() {
+        SnowflakeReferenceIdGenerator generator = new SnowflakeReferenceIdGenerator(7);
+        long previousId = generator.nextId();
+        String previous = SnowflakeReferenceIdGenerator.format(previousId);
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            String formatted = SnowflakeReferenceIdGenerator.format(id);
+            assertTrue(id > previousId);
+            assertTrue(formatted.compareTo(previous) > 0);
+            previousId = id;
+            previous = formatted;
+        }
+        assertEquals(17, previous.length());
+        assertTrue(previous.startsWith("TXN-"));
+    }
+
+    @Test
+    void noCollisionsAcrossThreadsAndNodes() throws Exception {
+        SnowflakeReferenceIdGenerator nodeA = new SnowflakeReferenceIdGenerator(1);
+        SnowflakeReferenceIdGenerator nodeB = new SnowflakeReferenceIdGenerator(2);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                SnowflakeReferenceIdGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        assertTrue(seen.add(generator.next()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(400_000, seen.size());
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceIdGenerator(-1));
+    }
+}
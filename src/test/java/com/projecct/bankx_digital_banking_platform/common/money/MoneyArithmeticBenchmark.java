@@ -0,0 +1,83 @@
+package com.projecct.bankx_digital_banking_platform.common.money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Posting-style arithmetic (compare, subtract, add per transfer) on BigDecimal vs {@link Money}.
+ * Not picked up by surefire; run the main method from the IDE or with
+ * {@code java -cp target/classes:target/test-classes ...MoneyArithmeticBenchmark}.
+ */
+public class MoneyArithmeticBenchmark {
+
+    private static final int ACCOUNTS = 1_024;
+    private static final int OPERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int[] from = new int[OPERATIONS];
+        int[] to = new int[OPERATIONS];
+        long[] amounts = new long[OPERATIONS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS; i++) {
+            from[i] = random.nextInt(ACCOUNTS);
+            to[i] = random.nextInt(ACCOUNTS);
+            amounts[i] = random.nextLong(1, 50_000);
+        }
+        BigDecimal[] decimalAmounts = new BigDecimal[OPERATIONS];
+        Money[] moneyAmounts = new Money[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            decimalAmounts[i] = BigDecimal.valueOf(amounts[i], Money.SCALE);
+            moneyAmounts[i] = Money.ofMinor(amounts[i]);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            BigDecimal decimalTotal = bigDecimal(from, to, decimalAmounts);
+            long decimalNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Money moneyTotal = money(from, to, moneyAmounts);
+            long moneyNanos = System.nanoTime() - start;
+
+            if (decimalTotal.compareTo(moneyTotal.toBigDecimal()) != 0) {
+                throw new IllegalStateException("Totals differ: " + decimalTotal + " vs " + moneyTotal);
+            }
+            System.out.printf("round %d: BigDecimal %.1f ns/op, Money %.1f ns/op%n", round,
+                    (double) decimalNanos / OPERATIONS, (double) moneyNanos / OPERATIONS);
+        }
+    }
+
+    private static BigDecimal bigDecimal(int[] from, int[] to, BigDecimal[] amounts) {
+        BigDecimal[] balances = new BigDecimal[ACCOUNTS];
+        Arrays.fill(balances, BigDecimal.valueOf(1_000_000_00L, Money.SCALE));
+        for (int i = 0; i < amounts.length; i++) {
+            if (balances[from[i]].compareTo(amounts[i]) >= 0) {
+                balances[from[i]] = balances[from[i]].subtract(amounts[i]);
+                balances[to[i]] = balances[to[i]].add(amounts[i]);
+            }
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal balance : balances) {
+            total = total.add(balance);
+        }
+        return total;
+    }
+
+    private static Money money(int[] from, int[] to, Money[] amounts) {
+        Money[] balances = new Money[ACCOUNTS];
+        Arrays.fill(balances, Money.ofMinor(1_000_000_00L));
+        for (int i = 0; i < amounts.length; i++) {
+            if (!balances[from[i]].isLessThan(amounts[i])) {
+                balances[from[i]] = balances[from[i]].minus(amounts[i]);
+                balances[to[i]] = balances[to[i]].plus(amounts[i]);
+            }
+        }
+        Money total = Money.ZERO;
+        for (Money balance : balances) {
+            total = total.plus(balance);
+        }
+        return total;
+    }
+}
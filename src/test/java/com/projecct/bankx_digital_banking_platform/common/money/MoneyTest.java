@@ -0,0 +1,40 @@
+package com.projecct.bankx_digital_banking_platform.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void roundTripsThroughBigDecimal() {
+        assertEquals(12_345, Money.of(new BigDecimal("123.45")).minorUnits());
+        assertEquals(500, Money.of(new BigDecimal("5")).minorUnits());
+        assertEquals(new BigDecimal("123.45"), Money.ofMinor(12_345).toBigDecimal());
+        assertEquals(Money.ZERO, Money.of(null));
+        assertEquals(Money.of(new BigDecimal("1.10")), Money.of(new BigDecimal("1.1")));
+    }
+
+    @Test
+    void rejectsSubMinorUnitAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("0.005")));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void arithmeticIsExactAndChecksOverflow() {
+        Money balance = Money.of(new BigDecimal("100.00"));
+        Money amount = Money.of(new BigDecimal("0.10"));
+        for (int i = 0; i < 3; i++) {
+            balance = balance.minus(amount);
+        }
+        assertEquals(new BigDecimal("99.70"), balance.toBigDecimal());
+        assertTrue(amount.isLessThan(balance));
+        assertEquals(-1, amount.negate().signum());
+
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+}
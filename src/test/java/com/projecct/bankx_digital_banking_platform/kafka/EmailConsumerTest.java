@@ -0,0 +1,59 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.kafka.event.AccountCreated;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.notification.EmailDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailConsumerTest {
+
+    private final EmailDispatcher dispatcher = mock(EmailDispatcher.class);
+    private final ProcessedEventStore processedEvents = mock(ProcessedEventStore.class);
+    private final EventCodec codec = new EventCodec();
+    private final EmailConsumer consumer = new EmailConsumer(dispatcher, codec, processedEvents);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(processedEvents.findProcessed(anyString(), anyCollection())).thenReturn(Set.of());
+        when(dispatcher.dispatch(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void allSentMarksEveryAccount() throws InterruptedException {
+        consumer.consume(List.of(created(1), created(2)));
+
+        verify(processedEvents).markProcessed(EmailConsumer.LISTENER_ID, List.of("1", "2"));
+    }
+
+    @Test
+    void failedMailFailsTheBatchAtItsRecord() throws InterruptedException {
+        when(dispatcher.dispatch(eq("c2@example.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")));
+        when(dispatcher.dispatch(eq("c3@example.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consume(List.of(created(1), "not json", created(2), created(3), created(4))));
+
+        assertEquals(2, e.getIndex());
+        assertEquals("SMTP down", e.getCause().getMessage());
+        // Sent mails are remembered so the redelivery does not repeat them
+        verify(processedEvents).markProcessed(EmailConsumer.LISTENER_ID, List.of("1", "4"));
+    }
+
+    private String created(int accountId) {
+        return codec.write(new AccountCreated(accountId, "ACC" + accountId, "Customer " + accountId,
+                "c" + accountId + "@example.com"));
+    }
+}
@@ -0,0 +1,22 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.Mockito.*;
+
+class OutboxIndexInitializerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void failingStatementDoesNotStopTheOthersOrStartup() {
+        doThrow(new DataAccessResourceFailureException("permission denied"))
+                .when(jdbcTemplate).execute(OutboxIndexInitializer.STATEMENTS.get(0));
+
+        new OutboxIndexInitializer(jdbcTemplate).run();
+
+        OutboxIndexInitializer.STATEMENTS.forEach(statement -> verify(jdbcTemplate).execute(statement));
+    }
+}
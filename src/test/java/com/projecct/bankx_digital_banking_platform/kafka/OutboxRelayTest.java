@@ -0,0 +1,187 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.OutboxEvent;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private final OutboxRepo outboxRepo = mock(OutboxRepo.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final OutboxRetryScheduler retryScheduler = mock(OutboxRetryScheduler.class);
+
+    // Send outcome per event id, sends of other ids succeed right away
+    private final Map<Long, CompletableFuture<SendResult<String, String>>> outcomes = new ConcurrentHashMap<>();
+    private final List<Long> sentIds = new ArrayList<>();
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private boolean sentInTransaction;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+            inTransaction.set(true);
+            try {
+                return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        when(outboxRepo.tryLockLane(anyInt(), anyInt())).thenReturn(true);
+        when(retryScheduler.backoffMs(anyInt())).thenReturn(1000L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<?, ?> record = inv.getArgument(0);
+            long id = Long.parseLong(new String(record.headers().lastHeader("eventId").value(), StandardCharsets.UTF_8));
+            synchronized (sentIds) {
+                sentIds.add(id);
+                sentInTransaction |= inTransaction.get();
+            }
+            return outcomes.getOrDefault(id, CompletableFuture.completedFuture(null));
+        });
+        relay = relay(10_000);
+    }
+
+    @Test
+    void failedEventHoldsBackTheRestOfItsKey() {
+        OutboxEvent first = event(1, "A");
+        OutboxEvent second = event(2, "A");
+        OutboxEvent other = event(3, "B");
+        outcomes.put(1L, CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(outboxRepo.claimLane(anyInt(), anyInt(), anyInt())).thenReturn(List.of(first, second, other));
+
+        relay.relayLane(0);
+
+        assertEquals(List.of(1L, 3L), sentIds);
+        verify(outboxRepo).finishClaim(eq(List.of(3L)), eq(OutboxEvent.Status.SUCCESS), any(), any());
+        verify(outboxRepo).finishClaim(eq(List.of(2L)), eq(OutboxEvent.Status.PENDING), isNull(), any());
+        verify(outboxRepo).markFailed(eq(1L), eq(OutboxEvent.Status.RETRY), eq(1), eq("RuntimeException: broker down"), any(), any());
+        assertEquals(OutboxEvent.Status.RETRY, first.getStatus());
+        assertEquals(1, first.getAttempts());
+        assertEquals(OutboxEvent.Status.PENDING, second.getStatus());
+        assertEquals(0, second.getAttempts());
+        verify(retryScheduler).schedule(eq(1L), anyLong());
+        verify(retryScheduler, never()).schedule(eq(2L), anyLong());
+    }
+
+    @Test
+    void eventsOfOneKeyAreSentOneAfterAnother() throws Exception {
+        CompletableFuture<SendResult<String, String>> firstAck = new CompletableFuture<>();
+        outcomes.put(1L, firstAck);
+        when(outboxRepo.claimLane(anyInt(), anyInt(), anyInt())).thenReturn(List.of(event(1, "A"), event(2, "A"), event(3, "B")));
+
+        Thread relaying = new Thread(() -> relay.relayLane(0));
+        relaying.start();
+        verify(kafkaTemplate, timeout(1000).times(2)).send(any(ProducerRecord.class));
+        verify(kafkaTemplate, after(100).times(2)).send(any(ProducerRecord.class));
+        firstAck.complete(null);
+        relaying.join(1000);
+
+        assertEquals(List.of(1L, 3L, 2L), sentIds);
+        verify(outboxRepo).finishClaim(eq(List.of(1L, 2L, 3L)), eq(OutboxEvent.Status.SUCCESS), any(), any());
+    }
+
+    @Test
+    void batchIsClaimedAsInFlightAndSentOutsideTheTransaction() {
+        OutboxEvent first = event(1, "A");
+        OutboxEvent other = event(2, "B");
+        List<OutboxEvent.Status> claimedAs = new ArrayList<>();
+        when(outboxRepo.claimLane(anyInt(), anyInt(), anyInt())).thenReturn(List.of(first, other));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            claimedAs.add(first.getStatus());
+            sentInTransaction |= inTransaction.get();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        relay.relayLane(0);
+
+        assertFalse(sentInTransaction);
+        assertEquals(List.of(OutboxEvent.Status.IN_FLIGHT, OutboxEvent.Status.IN_FLIGHT), claimedAs);
+        assertNotNull(first.getClaimedUntil());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(outboxRepo).finishClaim(eq(List.of(1L, 2L)), eq(OutboxEvent.Status.SUCCESS), any(), eq(first.getClaimedUntil()));
+    }
+
+    @Test
+    void claimMustOutliveTheSendTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> relay(10_000, 10_000));
+    }
+
+    @Test
+    void eventBehindATimedOutSendIsNeverSent() {
+        relay = relay(50);
+        CompletableFuture<SendResult<String, String>> lateAck = new CompletableFuture<>();
+        outcomes.put(1L, lateAck);
+        OutboxEvent first = event(1, "A");
+        OutboxEvent second = event(2, "A");
+        when(outboxRepo.claimLane(anyInt(), anyInt(), anyInt())).thenReturn(List.of(first, second));
+
+        relay.relayLane(0);
+        lateAck.complete(null);
+
+        assertEquals(List.of(1L), sentIds);
+        assertEquals(OutboxEvent.Status.RETRY, first.getStatus());
+        assertEquals(OutboxEvent.Status.PENDING, second.getStatus());
+        verify(outboxRepo, never()).finishClaim(any(), eq(OutboxEvent.Status.SUCCESS), any(), any());
+        verify(outboxRepo).finishClaim(eq(List.of(2L)), eq(OutboxEvent.Status.PENDING), isNull(), any());
+    }
+
+    @Test
+    void exhaustedEventIsDeadLetteredAndNoLongerHoldsItsKey() {
+        when(retryScheduler.exhausted(anyInt())).thenReturn(true);
+        OutboxEvent first = event(1, "A");
+        outcomes.put(1L, CompletableFuture.failedFuture(new RuntimeException("record too large")));
+        when(outboxRepo.claimLane(anyInt(), anyInt(), anyInt())).thenReturn(List.of(first));
+
+        relay.relayLane(0);
+
+        assertEquals(OutboxEvent.Status.DEAD_LETTER, first.getStatus());
+        verify(outboxRepo).markFailed(eq(1L), eq(OutboxEvent.Status.DEAD_LETTER), eq(1), any(), isNull(), any());
+        verify(retryScheduler, never()).schedule(anyLong(), anyLong());
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, String> r) -> r.topic().equals("transaction.events.DLT")));
+    }
+
+    // No worker threads, lanes are relayed by the test itself
+    private OutboxRelay relay(long sendTimeoutMs) {
+        return relay(sendTimeoutMs, 60_000);
+    }
+
+    private OutboxRelay relay(long sendTimeoutMs, long claimTimeoutMs) {
+        return new OutboxRelay(outboxRepo, kafkaTemplate, transactionTemplate, new OutboxRoutingProperties(null),
+                mock(OutboxSignal.class), retryScheduler, new SimpleMeterRegistry(), 0, 16, 500, 50, 5000, sendTimeoutMs,
+                claimTimeoutMs);
+    }
+
+    private static OutboxEvent event(long id, String key) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType("Transaction");
+        event.setAggregateId("TXN-" + id);
+        event.setEventKey(key);
+        event.setType("TRANSFER_INITIATED");
+        event.setPayload("{}");
+        event.setStatus(OutboxEvent.Status.PENDING);
+        return event;
+    }
+}
@@ -0,0 +1,56 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.transaction.repo.OutboxRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRetrySchedulerTest {
+
+    private final OutboxRepo outboxRepo = mock(OutboxRepo.class);
+    private final OutboxSignal signal = mock(OutboxSignal.class);
+    private final OutboxRetryScheduler scheduler =
+            new OutboxRetryScheduler(outboxRepo, signal, new SimpleMeterRegistry(), 3, 100, 1000, 10);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void backoffGrowsWithJitterUpToTheCap() {
+        for (int i = 0; i < 50; i++) {
+            long first = scheduler.backoffMs(1);
+            long third = scheduler.backoffMs(3);
+            long capped = scheduler.backoffMs(10);
+            assertTrue(first >= 50 && first <= 100, "first " + first);
+            assertTrue(third >= 200 && third <= 400, "third " + third);
+            assertTrue(capped >= 500 && capped <= 1000, "capped " + capped);
+        }
+        assertFalse(scheduler.exhausted(2));
+        assertTrue(scheduler.exhausted(3));
+    }
+
+    @Test
+    void dueRetryIsReleasedAndWakesTheRelay() {
+        when(outboxRepo.releaseRetries(anyCollection())).thenReturn(1);
+
+        scheduler.schedule(7L, 20);
+
+        verify(outboxRepo, timeout(1000)).releaseRetries(List.of(7L));
+        verify(signal, timeout(1000)).wake();
+    }
+
+    @Test
+    void retryIsNotReleasedBeforeItIsDue() {
+        scheduler.schedule(7L, 60_000);
+
+        verify(outboxRepo, after(200).never()).releaseRetries(anyCollection());
+    }
+}
@@ -0,0 +1,42 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxSignalTest {
+
+    private final OutboxSignal signal =
+            new OutboxSignal(new StaticListableBeanFactory().getBeanProvider(OutboxNotifyListener.class));
+
+    @Test
+    void wakeBeforeWaitIsNotLost() throws InterruptedException {
+        long seen = signal.generation();
+        signal.wake();
+        assertTrue(signal.awaitWake(seen, 1));
+    }
+
+    @Test
+    void timesOutWithoutWake() throws InterruptedException {
+        assertFalse(signal.awaitWake(signal.generation(), 20));
+    }
+
+    @Test
+    void wakesWaitingWorker() throws Exception {
+        long seen = signal.generation();
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return signal.awaitWake(seen, 10_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        signal.onOutboxEventsWritten(null);
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,61 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProcessedEventStoreTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProcessedEventStore store = new ProcessedEventStore(jdbcTemplate, new SimpleMeterRegistry(), 2, 1);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unknownIdsAreLookedUpOncePerBatch() {
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of("b"));
+
+        assertEquals(Set.of("b"), store.findProcessed("c1", List.of("a", "b", "c")));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+
+    @Test
+    void markedIdsAreAnsweredFromMemory() {
+        store.markProcessed("c1", List.of("a", "b"));
+
+        assertEquals(Set.of("a", "b"), store.findProcessed("c1", List.of("a", "b")));
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumersDoNotShareIds() {
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        store.markProcessed("c1", List.of("a"));
+
+        assertEquals(Set.of(), store.findProcessed("c2", List.of("a")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void memoryIsBoundedToCacheSize() {
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        store.markProcessed("c1", List.of("a", "b", "c"));
+
+        // "a" was evicted and goes back to the table, "b" and "c" are still cached
+        assertEquals(Set.of("b", "c"), store.findProcessed("c1", List.of("a", "b", "c")));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+}
@@ -0,0 +1,95 @@
+package com.projecct.bankx_digital_banking_platform.kafka;
+
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountOwnerContact;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.kafka.event.TransactionPosted;
+import com.projecct.bankx_digital_banking_platform.notification.EmailDispatcher;
+import com.projecct.bankx_digital_banking_platform.notification.NotificationCoalescer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionEmailConsumerTest {
+
+    private final EmailDispatcher dispatcher = mock(EmailDispatcher.class);
+    private final AccountRepo accountRepo = mock(AccountRepo.class);
+    private final NotificationCoalescer coalescer = mock(NotificationCoalescer.class);
+    private final ProcessedEventStore processedEvents = mock(ProcessedEventStore.class);
+    private final EventCodec codec = new EventCodec();
+
+    @BeforeEach
+    void setUp() {
+        when(processedEvents.findProcessed(anyString(), anyCollection())).thenReturn(Set.of());
+        AccountOwnerContact owner = mock(AccountOwnerContact.class);
+        when(owner.getAccountId()).thenReturn(1);
+        when(owner.getEmail()).thenReturn("owner@example.com");
+        when(accountRepo.findOwnerContactsByIds(anyCollection())).thenReturn(List.of(owner));
+    }
+
+    @Test
+    void bufferedAlertsAreMarkedOnlyOnceTheirDigestWasSent() throws InterruptedException {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        when(coalescer.add(anyString(), anyString())).thenReturn(first, second);
+
+        consumer(true).consumeTransactions(List.of(posted("TXN-1"), posted("TXN-2")));
+
+        verify(processedEvents).markProcessed(TransactionEmailConsumer.LISTENER_ID, List.of());
+        first.complete(null);
+        verifyNoMoreInteractions(ignoreStubs(processedEvents));
+
+        second.completeExceptionally(new IllegalStateException("SMTP down"));
+        verify(processedEvents).markProcessed(TransactionEmailConsumer.LISTENER_ID, List.of("TXN-1"));
+    }
+
+    @Test
+    void failedAlertFailsTheBatchAtItsRecord() throws InterruptedException {
+        when(dispatcher.dispatch(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer(false).consumeTransactions(List.of(posted("TXN-1"), posted("TXN-1"), posted("TXN-2"))));
+
+        assertEquals(2, e.getIndex());
+        verify(processedEvents).markProcessed(TransactionEmailConsumer.LISTENER_ID, List.of("TXN-1"));
+    }
+
+    @Test
+    void counterpartyEventIsNeitherAlertedNorMarked() throws InterruptedException {
+        when(dispatcher.dispatch(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        consumer(false).consumeTransactions(List.of(posted("TXN-1", 2)));
+        verify(processedEvents).markProcessed(TransactionEmailConsumer.LISTENER_ID, List.of());
+
+        consumer(false).consumeTransactions(List.of(posted("TXN-1", 1)));
+        verify(dispatcher, times(1)).dispatch(anyString(), anyString(), anyString());
+        verify(processedEvents).markProcessed(TransactionEmailConsumer.LISTENER_ID, List.of("TXN-1"));
+    }
+
+    private TransactionEmailConsumer consumer(boolean digestEnabled) {
+        return new TransactionEmailConsumer(dispatcher, codec, accountRepo, coalescer, processedEvents, digestEnabled);
+    }
+
+    private String posted(String referenceId) {
+        return posted(referenceId, 1);
+    }
+
+    // The event of one account leg of a transfer from account 1 to account 2
+    private String posted(String referenceId, int accountId) {
+        return codec.write(new TransactionPosted(referenceId, "TRANSFER", 1, 2, new BigDecimal("10.00"), LocalDateTime.now(),
+                accountId));
+    }
+}
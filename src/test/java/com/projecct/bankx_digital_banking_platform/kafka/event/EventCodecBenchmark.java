@@ -0,0 +1,62 @@
+package com.projecct.bankx_digital_banking_platform.kafka.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Serialize + deserialize throughput of the old payload handling (string concatenation on the
+ * producer, a new ObjectMapper and a Map per message on the consumer) vs {@link EventCodec}.
+ * Not picked up by surefire; run the main method from the IDE.
+ */
+public class EventCodecBenchmark {
+
+    private static final int MESSAGES = 200_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        EventCodec codec = new EventCodec();
+        LocalDateTime now = LocalDateTime.now();
+        String[] legacyPayloads = new String[MESSAGES];
+        String[] codecPayloads = new String[MESSAGES];
+        for (int round = 1; round <= ROUNDS; round++) {
+            long check = 0;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                legacyPayloads[i] = "{\"fromAccount\":\"" + i + "\",\"toAccount\":\"" + (i + 1)
+                        + "\",\"amount\":" + BigDecimal.valueOf(i, 2) + "}";
+            }
+            long legacyWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                Map<String, String> data = new ObjectMapper().readValue(legacyPayloads[i], new TypeReference<Map<String, String>>() {});
+                check += data.get("amount").length();
+            }
+            long legacyRead = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                codecPayloads[i] = codec.write(new TransactionPosted("TXN-" + i, "TRANSFER", i, i + 1, BigDecimal.valueOf(i, 2), now, i));
+            }
+            long codecWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                check += codec.readTransactionPosted(codecPayloads[i]).amount().scale();
+            }
+            long codecRead = System.nanoTime() - start;
+
+            System.out.printf("round %d: write legacy %.0f / codec %.0f msg/s, read legacy %.0f / codec %.0f msg/s (%d)%n",
+                    round, rate(legacyWrite), rate(codecWrite), rate(legacyRead), rate(codecRead), check);
+        }
+    }
+
+    private static double rate(long nanos) {
+        return MESSAGES / (nanos / 1e9);
+    }
+}
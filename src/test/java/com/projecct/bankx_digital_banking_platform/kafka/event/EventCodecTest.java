@@ -0,0 +1,51 @@
+package com.projecct.bankx_digital_banking_platform.kafka.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+
+    private final EventCodec codec = new EventCodec();
+
+    @Test
+    void transactionPostedRoundTrips() {
+        TransactionPosted event = new TransactionPosted("TXN-01HZX3K4M5N6P", "TRANSFER", 7, 9,
+                new BigDecimal("125.50"), LocalDateTime.of(2026, 3, 1, 12, 30, 15), 9);
+        String payload = codec.write(event);
+
+        assertEquals(event, codec.readTransactionPosted(payload));
+        assertTrue(payload.contains("\"v\":2"));
+        assertTrue(payload.contains("\"amount\":125.50"));
+    }
+
+    @Test
+    void nullsAreOmittedAndUnknownFieldsIgnored() {
+        String payload = codec.write(new TransactionPosted("TXN-1", "CREDIT", null, 9, BigDecimal.TEN, null, 9));
+        assertFalse(payload.contains("fromAccountId"));
+
+        AccountCreated created = codec.readAccountCreated(
+                "{\"v\":2,\"accountId\":3,\"accountNumber\":\"123\",\"name\":\"Ada\",\"email\":\"ada@x.io\",\"tier\":\"gold\"}");
+        assertEquals(2, created.v());
+        assertEquals("ada@x.io", created.email());
+    }
+
+    @Test
+    void versionOnePayloadIsTheInitiatingLeg() {
+        TransactionPosted event = codec.readTransactionPosted(
+                "{\"v\":1,\"referenceId\":\"TXN-1\",\"type\":\"TRANSFER\",\"fromAccountId\":7,\"toAccountId\":9,\"amount\":1.00}");
+
+        assertNull(event.accountId());
+        assertTrue(event.initiatingLeg());
+        assertEquals(7, event.initiatingAccountId());
+        assertFalse(new TransactionPosted("TXN-1", "TRANSFER", 7, 9, BigDecimal.ONE, null, 9).initiatingLeg());
+    }
+
+    @Test
+    void malformedPayloadIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> codec.readAccountCreated("{\"accountId\":"));
+    }
+}
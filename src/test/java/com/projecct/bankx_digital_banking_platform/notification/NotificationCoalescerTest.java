@@ -0,0 +1,93 @@
+package com.projecct.bankx_digital_banking_platform.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationCoalescerTest {
+
+    private final EmailDispatcher dispatcher = mock(EmailDispatcher.class);
+
+    @Test
+    void burstBecomesOneDigest() {
+        when(dispatcher.tryDispatch(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher, 0, 2, 10, 3);
+        coalescer.add("merchant@shop.io", "one");
+        coalescer.add("Merchant@shop.io", "two");
+        coalescer.add("merchant@shop.io", "three");
+        coalescer.add("other@x.io", "solo");
+
+        coalescer.flushDue();
+
+        verify(dispatcher).tryDispatch(eq("merchant@shop.io"), eq("Transaction digest: 3 transactions"),
+                contains("... and 1 more."));
+        verify(dispatcher).tryDispatch("other@x.io", "Transaction Alert", "solo");
+        verifyNoMoreInteractions(dispatcher);
+    }
+
+    @Test
+    void recipientOverTheLimitKeepsBuffering() {
+        when(dispatcher.tryDispatch(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher, 0, 50, 1, 3);
+        coalescer.add("a@x.io", "first");
+        coalescer.flushDue();
+        coalescer.add("a@x.io", "second");
+        coalescer.flushDue();
+
+        verify(dispatcher, times(1)).tryDispatch(anyString(), anyString(), anyString());
+
+        coalescer.flushAll();
+        verify(dispatcher).tryDispatch("a@x.io", "Transaction Alert", "second");
+    }
+
+    @Test
+    void fullDispatcherKeepsDigestForNextTick() {
+        when(dispatcher.tryDispatch(anyString(), anyString(), anyString()))
+                .thenReturn(null)
+                .thenReturn(CompletableFuture.completedFuture(null));
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher, 0, 50, 10, 3);
+        coalescer.add("a@x.io", "first");
+        coalescer.flushDue();
+        coalescer.add("a@x.io", "second");
+        coalescer.flushDue();
+
+        verify(dispatcher).tryDispatch(eq("a@x.io"), eq("Transaction digest: 2 transactions"), contains("- second"));
+    }
+
+    @Test
+    void alertCompletesOnceItsDigestWasSent() {
+        CompletableFuture<Void> smtp = new CompletableFuture<>();
+        when(dispatcher.tryDispatch(anyString(), anyString(), anyString())).thenReturn(smtp);
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher, 0, 50, 10, 3);
+        CompletableFuture<Void> first = coalescer.add("a@x.io", "first");
+        CompletableFuture<Void> second = coalescer.add("a@x.io", "second");
+
+        coalescer.flushDue();
+        assertFalse(first.isDone());
+
+        smtp.complete(null);
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+    }
+
+    @Test
+    void rejectedDigestIsRetriedThenItsAlertsFail() {
+        when(dispatcher.tryDispatch(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")));
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher, 0, 50, 10, 2);
+        CompletableFuture<Void> alert = coalescer.add("a@x.io", "first");
+
+        coalescer.flushDue();
+        assertFalse(alert.isDone());
+        coalescer.flushDue();
+        assertTrue(alert.isCompletedExceptionally());
+
+        coalescer.flushDue();
+        verify(dispatcher, times(2)).tryDispatch("a@x.io", "Transaction Alert", "first");
+    }
+}
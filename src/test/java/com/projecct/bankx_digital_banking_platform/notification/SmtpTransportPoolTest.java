@@ -0,0 +1,174 @@
+package com.projecct.bankx_digital_banking_platform.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new FakeSmtpServer();
+        pool = new SmtpTransportPool(Session.getInstance(new Properties()), "localhost", server.port(), null, null,
+                2, 30_000, 100, 5_000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    void reusesConnectionsAcrossMessages() throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        List<Future<?>> sends = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int n = i;
+            sends.add(senders.submit(() -> {
+                pool.send(List.of(message("user" + n + "@bankx.test")));
+                return null;
+            }));
+        }
+        for (Future<?> send : sends) {
+            send.get();
+        }
+        senders.shutdown();
+
+        assertEquals(40, server.messages.get());
+        assertTrue(server.connections.get() <= 2, "opened " + server.connections.get() + " connections");
+        assertTrue(pool.openConnections() <= 2);
+    }
+
+    @Test
+    void recyclesConnectionAfterMessageLimit() throws Exception {
+        pool.close();
+        pool = new SmtpTransportPool(Session.getInstance(new Properties()), "localhost", server.port(), null, null,
+                1, 30_000, 3, 5_000, new SimpleMeterRegistry());
+        for (int i = 0; i < 7; i++) {
+            pool.send(List.of(message("a@bankx.test")));
+        }
+        assertEquals(7, server.messages.get());
+        assertEquals(3, server.connections.get());
+    }
+
+    @Test
+    void reconnectsWhenServerDropsIdleConnection() throws Exception {
+        pool.send(List.of(message("a@bankx.test")));
+        server.dropConnections();
+        pool.send(List.of(message("b@bankx.test")));
+
+        assertEquals(2, server.messages.get());
+        assertEquals(2, server.connections.get());
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = new MimeMessage(pool.session());
+        message.setFrom(new InternetAddress("noreply@bankx.test"));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Transaction Alert");
+        message.setText("hello");
+        return message;
+    }
+
+    // Just enough SMTP to accept mail, counts connections and delivered messages
+    private static final class FakeSmtpServer implements AutoCloseable {
+        private final ServerSocket socket = new ServerSocket(0);
+        private final ExecutorService workers = Executors.newCachedThreadPool();
+        private final List<Socket> clients = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+
+        private FakeSmtpServer() throws IOException {
+            workers.submit(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket client = socket.accept();
+                        connections.incrementAndGet();
+                        clients.add(client);
+                        workers.submit(() -> serve(client));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        private int port() {
+            return socket.getLocalPort();
+        }
+
+        private void dropConnections() throws IOException {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+
+        private void serve(Socket client) {
+            try (client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 fake ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 fake");
+                        case "DATA" -> {
+                            reply(out, "354 go ahead");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // message body is not needed
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 ok");
+                    }
+                }
+            } catch (IOException e) {
+                // client went away
+            }
+        }
+
+        private void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            dropConnections();
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.projecct.bankx_digital_banking_platform.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL database for the tests that need real SQL, migrated with the Flyway scripts.
+ * Those tests are skipped unless -Dtest.db.url=jdbc:postgresql://localhost:5432/bankx_test
+ * (and -Dtest.db.user / -Dtest.db.password) are given. Each test cleans up the rows it creates.
+ */
+public final class TestDatabase {
+
+    // For @EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+    public static final String URL_PROPERTY = "test.db.url";
+
+    private static final DataSource DATA_SOURCE = createDataSource();
+
+    private TestDatabase() {
+    }
+
+    public static DataSource dataSource() {
+        return DATA_SOURCE;
+    }
+
+    public static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(DATA_SOURCE);
+    }
+
+    public static TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new DataSourceTransactionManager(DATA_SOURCE));
+    }
+
+    // Accounts of one fresh customer, ids taken from the accounts sequence so they never clash with real ones
+    public static List<Integer> createAccounts(int count, BigDecimal balance) {
+        JdbcTemplate jdbc = jdbcTemplate();
+        UUID customerId = UUID.randomUUID();
+        jdbc.update("INSERT INTO customers (id, name, email, created_at) VALUES (?, 'Test customer', ?, now())",
+                customerId, customerId + "@test.invalid");
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Integer id = jdbc.queryForObject("SELECT nextval('accounts_seq')::int", Integer.class);
+            jdbc.update("INSERT INTO accounts (id, account_number, account_type, balance, customer_id, version) " +
+                    "VALUES (?, ?, 'SAVINGS', ?, ?, 0)", id, String.format("T%011d", id), balance, customerId);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // Removes the accounts and everything posted against them
+    public static void deleteAccounts(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        JdbcTemplate jdbc = jdbcTemplate();
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "(", ")"));
+        String refs = "(SELECT reference_id FROM transactions WHERE from_account_id IN " + in + " OR to_account_id IN " + in + ")";
+        jdbc.update("DELETE FROM audit_logs WHERE entity_id IN " + refs);
+        jdbc.update("DELETE FROM outbox_events WHERE aggregate_type = 'Transaction' AND aggregate_id IN " + refs);
+        jdbc.update("DELETE FROM ledger_entries WHERE from_account_id IN " + in + " OR to_account_id IN " + in);
+        jdbc.update("DELETE FROM transactions WHERE from_account_id IN " + in + " OR to_account_id IN " + in);
+        jdbc.update("DELETE FROM account_journal WHERE account_id IN " + in);
+        jdbc.update("DELETE FROM account_balance_snapshots WHERE account_id IN " + in);
+        List<Object> customers = new ArrayList<>(jdbc.queryForList(
+                "SELECT DISTINCT customer_id FROM accounts WHERE id IN " + in, Object.class));
+        jdbc.update("DELETE FROM accounts WHERE id IN " + in);
+        for (Object customer : customers) {
+            jdbc.update("DELETE FROM customers WHERE id = ?", customer);
+        }
+    }
+
+    private static DataSource createDataSource() {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null) {
+            return null;
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getProperty("test.db.user"), System.getProperty("test.db.password"));
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        return dataSource;
+    }
+}
@@ -0,0 +1,76 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchTransferReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void jsonKeepsExactAmounts() throws IOException {
+        List<BatchTransferItem> items = read(BatchTransferReader.json(stream(
+                "[{\"toAccountId\": 2, \"amount\": 1500.10}, {\"toAccountId\": \"3\", \"amount\": \"0.1\"}]"), objectMapper));
+
+        assertEquals(List.of(new BatchTransferItem(2, new BigDecimal("1500.10")), new BatchTransferItem(3, new BigDecimal("0.1"))), items);
+    }
+
+    @Test
+    void unreadableJsonEntriesBecomeFailedItems() throws IOException {
+        List<BatchTransferItem> items = read(BatchTransferReader.json(stream(
+                "[{\"toAccountId\": 2, \"amount\": 5}, 42, {\"toAccountId\": \"x\", \"amount\": 5}, " +
+                "{\"toAccountId\": 2.5, \"amount\": 5}, {\"toAccountId\": 4, \"amount\": true}, {\"toAccountId\": 5}]"), objectMapper));
+
+        assertEquals(6, items.size());
+        assertNull(items.get(0).error());
+        assertNotNull(items.get(1).error());
+        assertNotNull(items.get(2).error());
+        assertNotNull(items.get(3).error());
+        assertNotNull(items.get(4).error());
+        // Missing fields are left for the service to reject
+        assertEquals(new BatchTransferItem(5, null), items.get(5));
+    }
+
+    @Test
+    void jsonThatIsNotAnArrayIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BatchTransferReader.json(stream("{\"toAccountId\": 2}"), objectMapper));
+    }
+
+    @Test
+    void csvSkipsHeaderAndBlankLinesAndKeepsGoingPastBadOnes() {
+        List<BatchTransferItem> items = read(BatchTransferReader.csv(stream(
+                "toAccountId,amount\n2,10.00\n\nabc,5\n3\n4,1.5,extra\n5,0.005\n")));
+
+        assertEquals(5, items.size());
+        assertEquals(new BatchTransferItem(2, new BigDecimal("10.00")), items.get(0));
+        assertNotNull(items.get(1).error());
+        assertNotNull(items.get(2).error());
+        assertNotNull(items.get(3).error());
+        // Sub-cent amounts are read as given, the service rejects them per item
+        assertEquals(new BatchTransferItem(5, new BigDecimal("0.005")), items.get(4));
+    }
+
+    private static List<BatchTransferItem> read(Iterator<BatchTransferItem> iterator) {
+        List<BatchTransferItem> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+        return items;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
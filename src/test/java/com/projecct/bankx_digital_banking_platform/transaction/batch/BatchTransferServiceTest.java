@@ -0,0 +1,105 @@
+package com.projecct.bankx_digital_banking_platform.transaction.batch;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConcurrencyMode;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchTransferServiceTest {
+
+    private final AccountRepo accountRepo = mock(AccountRepo.class);
+    private final PostingStore postingStore = mock(PostingStore.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final List<BatchTransferResult> results = new ArrayList<>();
+    private PostingEngine engine;
+    private BatchTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        when(accountRepo.findBalanceViewById(anyInt())).thenAnswer(inv -> Optional.of(view(inv.getArgument(0))));
+        when(accountRepo.findExistingIds(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<Integer>>getArgument(0).stream().filter(id -> id < 100).toList());
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        engine = new PostingEngine(accountRepo, 2);
+        service = new BatchTransferService(accountRepo, engine, postingStore, transactionTemplate,
+                () -> "TXN-" + UUID.randomUUID(), new BalanceCache(), ConcurrencyMode.SHARDED, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.shutdown();
+    }
+
+    @Test
+    void invalidItemsFailAloneAndTheirChunkIsPosted() {
+        List<BatchTransferItem> items = List.of(
+                new BatchTransferItem(2, new BigDecimal("10.00")),
+                new BatchTransferItem(3, new BigDecimal("0.005")),
+                BatchTransferItem.malformed("Not a number in: abc,5"),
+                new BatchTransferItem(1, new BigDecimal("5.00")),
+                new BatchTransferItem(4, new BigDecimal("-1")),
+                new BatchTransferItem(500, new BigDecimal("1.00")),
+                new BatchTransferItem(5, new BigDecimal("2.50")));
+
+        service.transfer(1, items.iterator(), results::add);
+
+        // Unknown destinations are reported before the rest of their chunk is posted
+        assertEquals(List.of(1, 2, 3, 4, 5, 0, 6), results.stream().map(BatchTransferResult::index).toList());
+        assertEquals("Amount must fit in 2 decimal places: 0.005", results.get(0).error());
+        assertEquals("Not a number in: abc,5", results.get(1).error());
+        assertEquals("Cannot transfer to the source account", results.get(2).error());
+        assertEquals("toAccountId and a positive amount are required", results.get(3).error());
+        assertEquals("To account not found", results.get(4).error());
+        assertEquals(Transaction.Status.SUCCESS, results.get(5).status());
+        assertEquals(Transaction.Status.SUCCESS, results.get(6).status());
+        assertNull(results.get(6).error());
+
+        // One write per chunk of valid items, the source debited by their total only
+        verify(postingStore, times(1)).write(argThat((List<Posting> postings) -> postings.size() == 2), eq(true));
+        assertEquals(new BigDecimal("87.50"), engine.post(null, 1, BigDecimal.ZERO, Transaction.Type.CREDIT).toBalanceAfter());
+    }
+
+    private static AccountBalanceView view(Integer id) {
+        return new AccountBalanceView() {
+            public Integer getId() {
+                return id;
+            }
+
+            public BigDecimal getBalance() {
+                return new BigDecimal("100.00");
+            }
+
+            public Long getVersion() {
+                return 0L;
+            }
+
+            public String getOwnerName() {
+                return "Owner " + id;
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.projecct.bankx_digital_banking_platform.transaction.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TransactionControllerTest {
+
+    @Test
+    void amountFingerprintIgnoresScale() {
+        assertEquals(TransactionController.fingerprint(new BigDecimal("100")),
+                TransactionController.fingerprint(new BigDecimal("100.00")));
+        assertEquals("100", TransactionController.fingerprint(new BigDecimal("1E+2")));
+        assertNotEquals(TransactionController.fingerprint(new BigDecimal("100.01")),
+                TransactionController.fingerprint(new BigDecimal("100.00")));
+    }
+}
@@ -0,0 +1,98 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class GroupCommitterTest {
+
+    private final PostingStore postingStore = mock(PostingStore.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    // Every write call the committer made, as the reference ids of its postings
+    private final List<List<String>> writes = new ArrayList<>();
+    private GroupCommitter committer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.shutdown();
+    }
+
+    @Test
+    void overdrawingPostingFailsAloneAndTheRestCommit() {
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(inv -> {
+            List<Posting> postings = inv.getArgument(0);
+            writes.add(postings.stream().map(Posting::referenceId).toList());
+            if (postings.stream().anyMatch(p -> p.referenceId().equals("BAD"))) {
+                throw new BalanceOverdrawnException(List.of(7));
+            }
+            return null;
+        }).when(postingStore).write(anyList());
+        // A batch only goes out once it is full, so all three land in the same one
+        committer = new GroupCommitter(postingStore, transactionTemplate, 3, 60_000);
+
+        CompletableFuture<Void> first = committer.submit(posting("A"));
+        CompletableFuture<Void> bad = committer.submit(posting("BAD"));
+        CompletableFuture<Void> last = committer.submit(posting("C"));
+
+        first.join();
+        last.join();
+        CompletionException e = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(BalanceOverdrawnException.class, e.getCause());
+        assertEquals(List.of(List.of("A", "BAD", "C"), List.of("A"), List.of("BAD"), List.of("C")), writes);
+    }
+
+    @Test
+    void noSubmitRacingWithShutdownIsLeftWaiting() throws Exception {
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        committer = new GroupCommitter(postingStore, transactionTemplate, 50, 1);
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+        Thread submitter = new Thread(() -> {
+            CompletableFuture<Void> future;
+            do {
+                future = committer.submit(posting("A"));
+                futures.add(future);
+            } while (!future.isCompletedExceptionally());
+        });
+        submitter.start();
+        Thread.sleep(20);
+
+        committer.shutdown();
+        submitter.join(5_000);
+
+        assertFalse(submitter.isAlive());
+        // Flushed or failed, none of them may still be pending
+        futures.forEach(future -> assertTrue(future.isDone()));
+        assertThrows(CompletionException.class, () -> committer.submit(posting("B")).join());
+    }
+
+    private Posting posting(String referenceId) {
+        return new Posting(referenceId, Transaction.Type.TRANSFER, Transaction.Status.SUCCESS, 7, 8,
+                BigDecimal.TEN, 7, 8, BigDecimal.ZERO, BigDecimal.TEN, "Owner", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,198 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Many callers draining one account at once: every mode must approve exactly what the balance covers
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class PosterConcurrencyTest {
+
+    private static final BigDecimal OPENING = new BigDecimal("100.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("7.00");
+    private static final int CALLERS = 16;
+    private static final int ATTEMPTS = 40;
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private final JdbcTemplate jdbc = TestDatabase.jdbcTemplate();
+    private TransactionTemplate transactionTemplate;
+    private AccountRepo accountRepo;
+    private PostingStore postingStore;
+    private List<Integer> accounts;
+
+    @BeforeAll
+    static void startJpa() {
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(TestDatabase.dataSource());
+        factoryBean.setPackagesToScan("com.projecct.bankx_digital_banking_platform");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        factoryBean.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopJpa() {
+        factoryBean.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // One transaction manager for the repositories and the JDBC writes, as in the application
+        JpaTransactionManager transactionManager = new JpaTransactionManager(factoryBean.getObject());
+        transactionManager.setDataSource(TestDatabase.dataSource());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        accountRepo = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(factoryBean.getObject()))
+                .getRepository(AccountRepo.class);
+        postingStore = new PostingStore(jdbc, new BalanceCache(), mock(ApplicationEventPublisher.class), new EventCodec(),
+                new AccountJournal(jdbc), new PooledSequenceIds(jdbc));
+        accounts = TestDatabase.createAccounts(2, OPENING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.deleteAccounts(accounts);
+    }
+
+    @Test
+    void atomicNeverOverdraws() throws Exception {
+        ConditionalUpdatePoster poster = new ConditionalUpdatePoster(accountRepo, postingStore, transactionTemplate,
+                PosterConcurrencyTest::reference, new BalanceCache());
+
+        assertDrainedExactly(() -> poster.post(accounts.get(0), accounts.get(1), AMOUNT, Transaction.Type.TRANSFER, null));
+    }
+
+    @Test
+    void pessimisticNeverOverdraws() throws Exception {
+        AccountLockingPoster poster = lockingPoster(5);
+
+        assertDrainedExactly(() -> poster.postPessimistic(accounts.get(0), accounts.get(1), AMOUNT, Transaction.Type.TRANSFER, null));
+    }
+
+    @Test
+    void optimisticNeverOverdraws() throws Exception {
+        // Enough attempts that no caller gives up under this much contention
+        AccountLockingPoster poster = lockingPoster(1_000);
+
+        assertDrainedExactly(() -> poster.postOptimistic(accounts.get(0), accounts.get(1), AMOUNT, Transaction.Type.TRANSFER, null));
+    }
+
+    @Test
+    void staleEngineIsStoppedByTheStoreAndRolledBack() throws InterruptedException {
+        // The engine believes in the opening balance, the database was drained by another writer
+        jdbc.update("UPDATE accounts SET balance = 5.00 WHERE id = ?", accounts.get(0));
+        AccountRepo staleRepo = mock(AccountRepo.class);
+        when(staleRepo.findBalanceViewById(anyInt())).thenAnswer(inv -> Optional.of(view(inv.getArgument(0), OPENING)));
+        PostingEngine engine = new PostingEngine(staleRepo, 2);
+        GroupCommitter committer = new GroupCommitter(postingStore, TestDatabase.transactionTemplate(), 10, 2);
+        try {
+            PostingResult result = engine.post(accounts.get(0), accounts.get(1), AMOUNT, Transaction.Type.TRANSFER);
+            CompletionException e = assertThrows(CompletionException.class, () -> committer.submit(
+                    Posting.of(result, accounts.get(0), accounts.get(1), Transaction.Type.TRANSFER, reference())).join());
+
+            assertInstanceOf(BalanceOverdrawnException.class, e.getCause());
+            assertEquals(List.of(accounts.get(0)), ((BalanceOverdrawnException) e.getCause()).getAccountIds());
+            assertEquals(0, new BigDecimal("5.00").compareTo(balance(accounts.get(0))));
+            assertEquals(0, OPENING.compareTo(balance(accounts.get(1))));
+            assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM account_journal WHERE account_id = ?",
+                    Integer.class, accounts.get(0)));
+        } finally {
+            committer.shutdown();
+            engine.shutdown();
+        }
+    }
+
+    private void assertDrainedExactly(Callable<Posting> post) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Posting>> postings = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                postings.add(callers.submit(post));
+            }
+            int approved = 0;
+            for (Future<Posting> posting : postings) {
+                if (posting.get().succeeded()) {
+                    approved++;
+                }
+            }
+            int covered = OPENING.divideToIntegralValue(AMOUNT).intValue();
+            assertEquals(covered, approved);
+            assertEquals(0, OPENING.subtract(AMOUNT.multiply(BigDecimal.valueOf(covered))).compareTo(balance(accounts.get(0))));
+            assertEquals(0, OPENING.add(AMOUNT.multiply(BigDecimal.valueOf(covered))).compareTo(balance(accounts.get(1))));
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    private AccountLockingPoster lockingPoster(int maxAttempts) {
+        return new AccountLockingPoster(accountRepo, postingStore, transactionTemplate, PosterConcurrencyTest::reference,
+                new BalanceCache(), new SimpleMeterRegistry(), maxAttempts, 1);
+    }
+
+    private BigDecimal balance(Integer accountId) {
+        return jdbc.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+    }
+
+    private static String reference() {
+        return "IT-" + UUID.randomUUID();
+    }
+
+    private static AccountBalanceView view(Integer id, BigDecimal balance) {
+        return new AccountBalanceView() {
+            public Integer getId() {
+                return id;
+            }
+
+            public BigDecimal getBalance() {
+                return balance;
+            }
+
+            public Long getVersion() {
+                return 0L;
+            }
+
+            public String getOwnerName() {
+                return "Test customer";
+            }
+        };
+    }
+}
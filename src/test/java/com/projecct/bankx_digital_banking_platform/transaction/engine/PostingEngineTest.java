@@ -0,0 +1,155 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountBalanceView;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class PostingEngineTest {
+
+    private static final BigDecimal OPENING = new BigDecimal("100.00");
+
+    // What the database holds, the engine loads from here
+    private final Map<Integer, BigDecimal> stored = new ConcurrentHashMap<>();
+    private final AccountRepo accountRepo = mock(AccountRepo.class);
+    private PostingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        for (int id = 1; id <= 6; id++) {
+            stored.put(id, OPENING);
+        }
+        when(accountRepo.findBalanceViewById(anyInt())).thenAnswer(inv -> Optional.of(view(inv.getArgument(0))));
+        engine = new PostingEngine(accountRepo, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.shutdown();
+    }
+
+    @Test
+    void suspendedEngineRejectsPostingsAndReloadsBalancesOnResume() {
+        engine.post(1, 2, new BigDecimal("10.00"), Transaction.Type.TRANSFER);
+        // Another writer changed the row while this instance did not hold the lock
+        stored.put(1, new BigDecimal("5.00"));
+
+        engine.suspend();
+        assertThrows(IllegalStateException.class, () -> engine.post(1, 2, BigDecimal.ONE, Transaction.Type.TRANSFER));
+        engine.resume();
+
+        PostingResult result = engine.post(1, null, new BigDecimal("50.00"), Transaction.Type.DEBIT);
+        assertFalse(result.approved());
+        assertEquals(new BigDecimal("5.00"), result.fromBalanceAfter());
+    }
+
+    @Test
+    void concurrentTransfersNeitherOverdrawNorLoseMoney() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 12; t++) {
+                Random random = new Random(t);
+                done.add(callers.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        int from = 1 + random.nextInt(6);
+                        int to = 1 + (from + random.nextInt(5)) % 6;
+                        engine.post(from, to, BigDecimal.valueOf(1 + random.nextInt(4_000), 2), Transaction.Type.TRANSFER);
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int id = 1; id <= 6; id++) {
+            BigDecimal balance = balance(id);
+            assertTrue(balance.signum() >= 0, "account " + id + " at " + balance);
+            total = total.add(balance);
+        }
+        assertEquals(OPENING.multiply(BigDecimal.valueOf(6)), total);
+    }
+
+    @Test
+    void overdraftIsRejectedWithoutTouchingEitherSide() {
+        PostingResult result = engine.post(1, 4, new BigDecimal("100.01"), Transaction.Type.TRANSFER);
+
+        assertFalse(result.approved());
+        assertEquals(OPENING, balance(1));
+        assertEquals(OPENING, balance(4));
+    }
+
+    @Test
+    void revertGivesBackBothLegs() {
+        PostingResult result = engine.post(1, 4, new BigDecimal("60.00"), Transaction.Type.TRANSFER);
+        assertTrue(result.approved());
+
+        engine.revert(result);
+
+        assertEquals(OPENING, balance(1));
+        assertEquals(OPENING, balance(4));
+        assertTrue(engine.post(1, null, OPENING, Transaction.Type.DEBIT).approved());
+    }
+
+    @Test
+    void evictedAccountIsReloadedFromTheDatabase() {
+        assertTrue(engine.post(1, null, new BigDecimal("80.00"), Transaction.Type.DEBIT).approved());
+        // Another writer took the balance down meanwhile
+        stored.put(1, new BigDecimal("5.00"));
+
+        engine.evict(1);
+
+        assertFalse(engine.post(1, null, new BigDecimal("10.00"), Transaction.Type.DEBIT).approved());
+        verify(accountRepo, times(2)).findBalanceViewById(1);
+    }
+
+    // A zero credit reads the balance on the account's shard
+    private BigDecimal balance(int accountId) {
+        return engine.post(null, accountId, BigDecimal.ZERO, Transaction.Type.CREDIT).toBalanceAfter();
+    }
+
+    private AccountBalanceView view(Integer id) {
+        BigDecimal balance = stored.get(id);
+        return new AccountBalanceView() {
+            public Integer getId() {
+                return id;
+            }
+
+            public BigDecimal getBalance() {
+                return balance;
+            }
+
+            public Long getVersion() {
+                return 0L;
+            }
+
+            public String getOwnerName() {
+                return "Owner " + id;
+            }
+        };
+    }
+}
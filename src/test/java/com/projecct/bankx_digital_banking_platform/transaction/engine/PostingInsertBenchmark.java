@@ -0,0 +1,139 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Inserts/sec of the transactions rows of the posting path, before and after the move to pooled
+ * sequences: IDENTITY ids force one round trip per row (the generated key has to come back),
+ * pooled-lo ids are known up front so a group of postings goes out as one rewritten batch.
+ * Runs on scratch copies of the transactions table (bench_txn_identity / bench_txn_pooled,
+ * dropped afterwards). Needs a PostgreSQL instance; not picked up by surefire, run the main method
+ * with -Dbench.url=jdbc:postgresql://localhost:5432/bankx -Dbench.user=... -Dbench.password=...
+ * and optionally -Dbench.rows=200000 -Dbench.group=200.
+ */
+public class PostingInsertBenchmark {
+
+    private static final String INSERT_IDENTITY =
+            "INSERT INTO bench_txn_identity (from_account_id, to_account_id, amount, type, status, reference_id, created_at) " +
+            "VALUES (?, ?, ?, 'TRANSFER', 'SUCCESS', ?, ?)";
+
+    private static final String INSERT_POOLED =
+            "INSERT INTO bench_txn_pooled (id, from_account_id, to_account_id, amount, type, status, reference_id, created_at) " +
+            "VALUES (?, ?, ?, ?, 'TRANSFER', 'SUCCESS', ?, ?)";
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("bench.rows", 200_000);
+        int group = Integer.getInteger("bench.group", 200);
+        // The application turns this on for its pool as well
+        String url = System.getProperty("bench.url") + (System.getProperty("bench.url").contains("?") ? "&" : "?")
+                + "reWriteBatchedInserts=true";
+        try (Connection con = DriverManager.getConnection(url, System.getProperty("bench.user"), System.getProperty("bench.password"))) {
+            con.setAutoCommit(false);
+            for (int round = 1; round <= ROUNDS; round++) {
+                setUp(con);
+                double identity = identity(con, rows, group);
+                double pooled = pooled(con, rows, group);
+                System.out.printf("round %d: IDENTITY row by row %,.0f inserts/s, pooled-lo batched %,.0f inserts/s%n",
+                        round, identity, pooled);
+            }
+        } finally {
+            try (Connection con = DriverManager.getConnection(url, System.getProperty("bench.user"), System.getProperty("bench.password"))) {
+                execute(con, "DROP TABLE IF EXISTS bench_txn_identity");
+                execute(con, "DROP TABLE IF EXISTS bench_txn_pooled");
+                execute(con, "DROP SEQUENCE IF EXISTS bench_txn_pooled_seq");
+            }
+        }
+    }
+
+    private static void setUp(Connection con) throws SQLException {
+        execute(con, "DROP TABLE IF EXISTS bench_txn_identity");
+        execute(con, "DROP TABLE IF EXISTS bench_txn_pooled");
+        execute(con, "DROP SEQUENCE IF EXISTS bench_txn_pooled_seq");
+        execute(con, "CREATE TABLE bench_txn_identity (LIKE transactions INCLUDING INDEXES)");
+        execute(con, "ALTER TABLE bench_txn_identity ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+        execute(con, "CREATE TABLE bench_txn_pooled (LIKE transactions INCLUDING INDEXES)");
+        execute(con, "CREATE SEQUENCE bench_txn_pooled_seq INCREMENT BY " + PooledSequenceIds.ALLOCATION_SIZE);
+        con.commit();
+    }
+
+    // What Hibernate does with IDENTITY: every row is its own statement, its key read back
+    private static double identity(Connection con, int rows, int group) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(INSERT_IDENTITY, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bind(ps, 1, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                }
+                if ((i + 1) % group == 0) {
+                    con.commit();
+                }
+            }
+            con.commit();
+        }
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // What PostingStore does: ids for the group from the pooled sequence in one query, then one batch per group
+    private static double pooled(Connection con, int rows, int group) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement blocks = con.prepareStatement("SELECT nextval('bench_txn_pooled_seq') FROM generate_series(1, ?)");
+             PreparedStatement ps = con.prepareStatement(INSERT_POOLED)) {
+            Deque<Long> starts = new ArrayDeque<>();
+            long next = 0;
+            long end = 0;
+            for (int from = 0; from < rows; from += group) {
+                int count = Math.min(group, rows - from);
+                long missing = count - (end - next);
+                if (missing > 0) {
+                    blocks.setLong(1, (missing + PooledSequenceIds.ALLOCATION_SIZE - 1) / PooledSequenceIds.ALLOCATION_SIZE);
+                    try (ResultSet rs = blocks.executeQuery()) {
+                        while (rs.next()) {
+                            starts.add(rs.getLong(1));
+                        }
+                    }
+                }
+                for (int i = from; i < from + count; i++) {
+                    if (next == end) {
+                        next = starts.remove();
+                        end = next + PooledSequenceIds.ALLOCATION_SIZE;
+                    }
+                    ps.setLong(1, next++);
+                    bind(ps, 2, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                con.commit();
+            }
+        }
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void bind(PreparedStatement ps, int first, int i) throws SQLException {
+        ps.setInt(first, 1 + i % 1000);
+        ps.setInt(first + 1, 1 + (i * 7) % 1000);
+        ps.setBigDecimal(first + 2, BigDecimal.valueOf(1 + i % 50_000, 2));
+        ps.setString(first + 3, "BENCH-" + System.nanoTime() + "-" + i);
+        ps.setTimestamp(first + 4, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static void execute(Connection con, String sql) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.projecct.bankx_digital_banking_platform.transaction.engine;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.account.journal.JournalLeg;
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.kafka.event.TransactionPosted;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PostingStoreJournalTest {
+
+    private final AccountJournal journal = mock(AccountJournal.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PostingStore store = new PostingStore(jdbcTemplate, mock(BalanceCache.class),
+            mock(ApplicationEventPublisher.class), new EventCodec(), journal, new PooledSequenceIds(jdbcTemplate));
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Test
+    void transferBecomesOneLegPerAccountInPostingOrder() {
+        Posting transfer = new Posting("TXN-1", Transaction.Type.TRANSFER, Transaction.Status.SUCCESS, 1, 2,
+                new BigDecimal("100.00"), 1, 2, new BigDecimal("400.00"), new BigDecimal("600.00"), "alice", now);
+        Posting deposit = new Posting("TXN-2", Transaction.Type.CREDIT, Transaction.Status.SUCCESS, null, 1,
+                new BigDecimal("50.00"), null, 1, null, new BigDecimal("450.00"), "SYSTEM", now);
+
+        store.write(List.of(transfer, deposit), false);
+
+        verify(journal).append(List.of(
+                new JournalLeg(1, "TXN-1", "TRANSFER", 2, new BigDecimal("-100.00"), now),
+                new JournalLeg(2, "TXN-1", "TRANSFER", 1, new BigDecimal("100.00"), now),
+                new JournalLeg(1, "TXN-2", "CREDIT", null, new BigDecimal("50.00"), now)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyAccountLegGetsAnEventKeyedByThatAccount() {
+        Posting transfer = new Posting("TXN-1", Transaction.Type.TRANSFER, Transaction.Status.SUCCESS, 1, 2,
+                new BigDecimal("100.00"), 1, 2, new BigDecimal("400.00"), new BigDecimal("600.00"), "alice", now);
+        Posting deposit = new Posting("TXN-2", Transaction.Type.CREDIT, Transaction.Status.SUCCESS, null, 3,
+                new BigDecimal("50.00"), null, 3, null, new BigDecimal("450.00"), "SYSTEM", now);
+
+        store.write(List.of(transfer, deposit), false);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO outbox_events"), rows.capture());
+        List<Object[]> outbox = rows.getValue();
+        assertEquals(3, outbox.size());
+        EventCodec codec = new EventCodec();
+        int[] accounts = {1, 2, 3};
+        String[] references = {"TXN-1", "TXN-1", "TXN-2"};
+        for (int i = 0; i < outbox.size(); i++) {
+            Object[] row = outbox.get(i);
+            assertEquals(references[i], row[1]);
+            assertEquals(String.valueOf(accounts[i]), row[2]);
+            TransactionPosted event = codec.readTransactionPosted((String) row[4]);
+            assertEquals(accounts[i], event.accountId());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ledgerBalancesComeFromTheUpdatedRowsNotTheEngine() throws Exception {
+        // The engine's balances are stale: the rows were 1000 and 1000 before this batch, not 500 and 500
+        Posting first = new Posting("TXN-1", Transaction.Type.TRANSFER, Transaction.Status.SUCCESS, 1, 2,
+                new BigDecimal("100.00"), 1, 2, new BigDecimal("400.00"), new BigDecimal("600.00"), "alice", now);
+        Posting second = new Posting("TXN-2", Transaction.Type.TRANSFER, Transaction.Status.SUCCESS, 1, 2,
+                new BigDecimal("50.00"), 1, 2, new BigDecimal("350.00"), new BigDecimal("650.00"), "alice", now);
+        ResultSet debited = row(1, "850.00", "-150.00");
+        ResultSet credited = row(2, "1150.00", "150.00");
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            handler.processRow(debited);
+            handler.processRow(credited);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        store.write(List.of(first, second), true);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO ledger_entries"), rows.capture());
+        List<Object[]> ledger = rows.getValue();
+        // to_account_balance_after, from_balance_after
+        assertEquals(new BigDecimal("1100.00"), ledger.get(0)[7]);
+        assertEquals(new BigDecimal("900.00"), ledger.get(0)[8]);
+        assertEquals(new BigDecimal("1150.00"), ledger.get(1)[7]);
+        assertEquals(new BigDecimal("850.00"), ledger.get(1)[8]);
+    }
+
+    @Test
+    void rejectedPostingsAreNotJournaled() {
+        Posting rejected = new Posting("TXN-3", Transaction.Type.DEBIT, Transaction.Status.FAILED, 1, null,
+                new BigDecimal("900.00"), 1, null, new BigDecimal("400.00"), null, "alice", now);
+
+        store.write(List.of(rejected), false);
+
+        verifyNoInteractions(journal);
+    }
+
+    // One row of the balance UPDATE's RETURNING: id, balance, version, delta
+    private static ResultSet row(int id, String balance, String delta) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(id);
+        when(rs.getBigDecimal(2)).thenReturn(new BigDecimal(balance));
+        when(rs.getLong(3)).thenReturn(1L);
+        when(rs.getBigDecimal(4)).thenReturn(new BigDecimal(delta));
+        return rs;
+    }
+}
@@ -0,0 +1,143 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+import com.projecct.bankx_digital_banking_platform.account.cache.BalanceCache;
+import com.projecct.bankx_digital_banking_platform.account.journal.AccountJournal;
+import com.projecct.bankx_digital_banking_platform.common.id.PooledSequenceIds;
+import com.projecct.bankx_digital_banking_platform.exceptions.IdempotencyConflictException;
+import com.projecct.bankx_digital_banking_platform.kafka.event.EventCodec;
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+// The reserve statement's lease rules, and completion by the posting, against the real tables
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class IdempotencyLeaseTest {
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private final JdbcTemplate jdbc = TestDatabase.jdbcTemplate();
+    private final String key = "test-" + UUID.randomUUID();
+    private TransactionTemplate transactionTemplate;
+    private IdempotencyRepo repo;
+    private PostingStore postingStore;
+    private List<Integer> accounts;
+
+    @BeforeAll
+    static void startJpa() {
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(TestDatabase.dataSource());
+        factoryBean.setPackagesToScan("com.projecct.bankx_digital_banking_platform");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        factoryBean.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopJpa() {
+        factoryBean.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(factoryBean.getObject());
+        transactionManager.setDataSource(TestDatabase.dataSource());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        repo = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(factoryBean.getObject()))
+                .getRepository(IdempotencyRepo.class);
+        postingStore = new PostingStore(jdbc, new BalanceCache(), mock(ApplicationEventPublisher.class), new EventCodec(),
+                new AccountJournal(jdbc), new PooledSequenceIds(jdbc));
+        accounts = TestDatabase.createAccounts(1, BigDecimal.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key);
+        TestDatabase.deleteAccounts(accounts);
+    }
+
+    @Test
+    void liveReservationCannotBeTaken() {
+        assertEquals(1, reserve("deposit:1:10", "first"));
+        assertEquals(0, reserve("deposit:1:10", "second"));
+    }
+
+    @Test
+    void expiredReservationIsTakenOverAndTheOldHoldersPostingRollsBack() {
+        assertEquals(1, reserve("deposit:1:10", "first"));
+        expireLease();
+
+        assertEquals(1, reserve("deposit:1:10", "second"));
+
+        String lost = "IT-" + UUID.randomUUID();
+        assertThrows(IdempotencyConflictException.class, () -> post(lost, "first"));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM transactions WHERE reference_id = ?", Integer.class, lost));
+        assertEquals(0, inTransaction(() -> repo.release(key, "first")));
+
+        String kept = "IT-" + UUID.randomUUID();
+        post(kept, "second");
+        assertEquals(kept, repo.findById(key).orElseThrow().getReferenceId());
+    }
+
+    @Test
+    void expiredReservationOfAnotherRequestIsNotTaken() {
+        assertEquals(1, reserve("deposit:1:10", "first"));
+        expireLease();
+
+        assertEquals(0, reserve("withdraw:1:10", "second"));
+    }
+
+    @Test
+    void completedKeyIsNeverTaken() {
+        assertEquals(1, reserve("deposit:1:10", "first"));
+        post("IT-" + UUID.randomUUID(), "first");
+        expireLease();
+
+        assertEquals(0, reserve("deposit:1:10", "second"));
+    }
+
+    private int reserve(String fingerprint, String token) {
+        return inTransaction(() -> repo.reserve(key, fingerprint, token, 30));
+    }
+
+    // A rejected withdrawal: no balances change, but the key is completed like any posting
+    private void post(String referenceId, String token) {
+        Posting posting = new Posting(referenceId, Transaction.Type.DEBIT, Transaction.Status.FAILED, accounts.get(0), null,
+                BigDecimal.TEN, accounts.get(0), null, BigDecimal.ZERO, null, "test", LocalDateTime.now(),
+                new IdempotencyClaim(key, token));
+        transactionTemplate.executeWithoutResult(status -> postingStore.write(List.of(posting)));
+    }
+
+    private void expireLease() {
+        jdbc.update("UPDATE idempotency_keys SET created_at = now() - interval '1 minute' WHERE idempotency_key = ?", key);
+    }
+
+    private int inTransaction(IntSupplier statement) {
+        return transactionTemplate.execute(status -> statement.getAsInt());
+    }
+}
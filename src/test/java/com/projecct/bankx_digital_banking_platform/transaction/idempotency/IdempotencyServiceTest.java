@@ -0,0 +1,100 @@
+package com.projecct.bankx_digital_banking_platform.transaction.idempotency;
+
+import com.projecct.bankx_digital_banking_platform.common.dto.LedgerEntry;
+import com.projecct.bankx_digital_banking_platform.exceptions.IdempotencyConflictException;
+import com.projecct.bankx_digital_banking_platform.exceptions.InsufficientBalanceException;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyRepo repo = mock(IdempotencyRepo.class);
+    private final IdempotencyService service = new IdempotencyService(repo, 100, 60, 30);
+    private final AtomicInteger postings = new AtomicInteger();
+
+    @Test
+    void sameKeyOfTwoCallersIsTwoKeys() throws InsufficientBalanceException {
+        when(repo.reserve(anyString(), anyString(), anyString(), eq(30L))).thenReturn(1);
+
+        service.execute("alice", "k-1", "deposit:1:10", this::post);
+        service.execute("bob", "k-1", "deposit:1:10", this::post);
+
+        assertEquals(2, postings.get());
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(repo, times(2)).reserve(keys.capture(), anyString(), anyString(), anyLong());
+        assertNotEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertEquals(64, keys.getValue().length());
+    }
+
+    @Test
+    void retryOfTheSameCallerIsServedFromCache() throws InsufficientBalanceException {
+        when(repo.reserve(anyString(), anyString(), anyString(), anyLong())).thenReturn(1);
+
+        LedgerEntry.TransactionDto first = service.execute("alice", "k-1", "deposit:1:10", this::post);
+        LedgerEntry.TransactionDto retry = service.execute("alice", "k-1", "deposit:1:10", this::post);
+
+        assertEquals(first.getReferenceId(), retry.getReferenceId());
+        assertEquals(1, postings.get());
+        assertThrows(IdempotencyConflictException.class, () -> service.execute("alice", "k-1", "deposit:1:99", this::post));
+        // Another caller's key of the same name does not see it
+        assertNotEquals(first.getReferenceId(), service.execute("bob", "k-1", "deposit:1:10", this::post).getReferenceId());
+    }
+
+    @Test
+    void failedPostingReleasesOnlyItsOwnReservation() {
+        when(repo.reserve(anyString(), anyString(), anyString(), anyLong())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> service.execute("alice", "k-1", "withdraw:1:10", claim -> {
+            throw new IllegalStateException("engine down");
+        }));
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(repo).reserve(eq(IdempotencyService.scope("alice", "k-1")), eq("withdraw:1:10"), token.capture(), eq(30L));
+        verify(repo).release(IdempotencyService.scope("alice", "k-1"), token.getValue());
+        verify(repo, never()).deleteById(anyString());
+    }
+
+    @Test
+    void postingCarriesTheReservationItCompletes() throws InsufficientBalanceException {
+        when(repo.reserve(anyString(), anyString(), anyString(), anyLong())).thenReturn(1);
+        AtomicReference<IdempotencyClaim> seen = new AtomicReference<>();
+
+        service.execute("alice", "k-1", "deposit:1:10", claim -> {
+            seen.set(claim);
+            return post(claim);
+        });
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(repo).reserve(eq(IdempotencyService.scope("alice", "k-1")), eq("deposit:1:10"), token.capture(), eq(30L));
+        assertEquals(new IdempotencyClaim(IdempotencyService.scope("alice", "k-1"), token.getValue()), seen.get());
+        // Without a key there is nothing to complete
+        service.execute("alice", null, "deposit:1:10", claim -> {
+            assertNull(claim);
+            return post(claim);
+        });
+    }
+
+    @Test
+    void reservationStillRunningIsAConflict() {
+        when(repo.reserve(anyString(), anyString(), anyString(), anyLong())).thenReturn(0);
+        IdempotencyRecord running = new IdempotencyRecord();
+        running.setFingerprint("deposit:1:10");
+        when(repo.findById(IdempotencyService.scope("alice", "k-1"))).thenReturn(Optional.of(running));
+
+        assertThrows(IdempotencyConflictException.class, () -> service.execute("alice", "k-1", "deposit:1:10", this::post));
+        assertEquals(0, postings.get());
+    }
+
+    private LedgerEntry.TransactionDto post(IdempotencyClaim claim) {
+        return new LedgerEntry.TransactionDto(Transaction.Status.SUCCESS, "TXN-" + postings.incrementAndGet());
+    }
+}
@@ -0,0 +1,132 @@
+package com.projecct.bankx_digital_banking_platform.transaction.repo;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Plans and timings of the account date-range query before and after the V18 indexes, on a
+ * seeded copy of the transactions table (bench_transactions, dropped afterwards).
+ * Needs a PostgreSQL instance; not picked up by surefire, run the main method with
+ * -Dbench.url=jdbc:postgresql://localhost:5432/bankx -Dbench.user=... -Dbench.password=...
+ * and optionally -Dbench.rows=20000000 -Dbench.accounts=100000.
+ */
+public class TransactionDateRangeBenchmark {
+
+    // The query as it was: DATE() on the column and an OR across both account columns
+    private static final String OLD_QUERY =
+            "SELECT * FROM bench_transactions WHERE (from_account_id = ? OR to_account_id = ?) " +
+            "AND DATE(created_at) BETWEEN ?::date AND ?::date";
+
+    private static final String NEW_QUERY =
+            "(SELECT * FROM bench_transactions WHERE from_account_id = ? AND created_at >= ?::timestamp AND created_at < ?::timestamp) " +
+            "UNION ALL " +
+            "(SELECT * FROM bench_transactions WHERE to_account_id = ? AND from_account_id IS DISTINCT FROM ? " +
+            "  AND created_at >= ?::timestamp AND created_at < ?::timestamp) " +
+            "ORDER BY created_at, id";
+
+    private static final int RUNS = 20;
+
+    public static void main(String[] args) throws Exception {
+        long rows = Long.getLong("bench.rows", 20_000_000L);
+        int accounts = Integer.getInteger("bench.accounts", 100_000);
+        try (Connection con = DriverManager.getConnection(System.getProperty("bench.url"),
+                System.getProperty("bench.user"), System.getProperty("bench.password"))) {
+            seed(con, rows, accounts);
+            int accountId = accounts / 2;
+
+            System.out.println("== Without indexes, old query");
+            report(con, OLD_QUERY, ps -> bindOld(ps, accountId));
+
+            System.out.println("Creating (from_account_id, created_at, id) and (to_account_id, created_at, id) ...");
+            execute(con, "CREATE INDEX ON bench_transactions (from_account_id, created_at, id)");
+            execute(con, "CREATE INDEX ON bench_transactions (to_account_id, created_at, id)");
+            execute(con, "ANALYZE bench_transactions");
+
+            System.out.println("== With indexes, old query");
+            report(con, OLD_QUERY, ps -> bindOld(ps, accountId));
+            System.out.println("== With indexes, new query");
+            report(con, NEW_QUERY, ps -> bindNew(ps, accountId));
+        } finally {
+            try (Connection con = DriverManager.getConnection(System.getProperty("bench.url"),
+                    System.getProperty("bench.user"), System.getProperty("bench.password"))) {
+                execute(con, "DROP TABLE IF EXISTS bench_transactions");
+            }
+        }
+    }
+
+    // One year of traffic spread over the accounts, in batches the server generates itself
+    private static void seed(Connection con, long rows, int accounts) throws SQLException {
+        execute(con, "DROP TABLE IF EXISTS bench_transactions");
+        execute(con, "CREATE UNLOGGED TABLE bench_transactions (LIKE transactions INCLUDING DEFAULTS)");
+        long start = System.nanoTime();
+        long batch = 1_000_000;
+        for (long from = 1; from <= rows; from += batch) {
+            long to = Math.min(rows, from + batch - 1);
+            execute(con, "INSERT INTO bench_transactions (id, from_account_id, to_account_id, amount, type, status, reference_id, created_at) " +
+                    "SELECT g, 1 + (random() * " + (accounts - 1) + ")::int, 1 + (random() * " + (accounts - 1) + ")::int, " +
+                    "round((random() * 1000)::numeric, 2), 'TRANSFER', 'SUCCESS', 'BENCH-' || g, " +
+                    "timestamp '2025-01-01' + random() * interval '365 days' " +
+                    "FROM generate_series(" + from + ", " + to + ") g");
+        }
+        execute(con, "ANALYZE bench_transactions");
+        System.out.printf("Seeded %,d rows over %,d accounts in %d s%n", rows, accounts, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private static void bindOld(PreparedStatement ps, int accountId) throws SQLException {
+        ps.setInt(1, accountId);
+        ps.setInt(2, accountId);
+        ps.setString(3, "2025-03-01");
+        ps.setString(4, "2025-03-31");
+    }
+
+    private static void bindNew(PreparedStatement ps, int accountId) throws SQLException {
+        ps.setInt(1, accountId);
+        ps.setString(2, "2025-03-01");
+        ps.setString(3, "2025-04-01");
+        ps.setInt(4, accountId);
+        ps.setInt(5, accountId);
+        ps.setString(6, "2025-03-01");
+        ps.setString(7, "2025-04-01");
+    }
+
+    private static void report(Connection con, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement explain = con.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+            binder.bind(explain);
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    System.out.println("  " + rs.getString(1));
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            binder.bind(ps);
+            long best = Long.MAX_VALUE;
+            int found = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                found = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        found++;
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("  %d rows, best of %d: %.2f ms%n", found, RUNS, best / 1e6);
+        }
+    }
+
+    private static void execute(Connection con, String sql) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+}
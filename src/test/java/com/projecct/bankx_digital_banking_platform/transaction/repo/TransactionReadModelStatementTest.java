@@ -0,0 +1,118 @@
+package com.projecct.bankx_digital_banking_platform.transaction.repo;
+
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountRepo;
+import com.projecct.bankx_digital_banking_platform.account.repo.AccountView;
+import com.projecct.bankx_digital_banking_platform.support.TestDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The transaction and account read models must cost one statement each, however many accounts they mention
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class TransactionReadModelStatementTest {
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+    private static Statistics statistics;
+
+    private final JdbcTemplate jdbc = TestDatabase.jdbcTemplate();
+    private EntityManager entityManager;
+    private TransactionRepo transactionRepo;
+    private AccountRepo accountRepo;
+    private List<Integer> accounts;
+    private String transferRef;
+
+    @BeforeAll
+    static void startJpa() {
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(TestDatabase.dataSource());
+        factoryBean.setPackagesToScan("com.projecct.bankx_digital_banking_platform");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.generate_statistics", "true"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory factory = factoryBean.getObject();
+        statistics = factory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    static void stopJpa() {
+        factoryBean.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager = factoryBean.getObject().createEntityManager();
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+        transactionRepo = repositories.getRepository(TransactionRepo.class);
+        accountRepo = repositories.getRepository(AccountRepo.class);
+
+        accounts = TestDatabase.createAccounts(3, new BigDecimal("1000.00"));
+        transferRef = insert(accounts.get(0), accounts.get(1));
+        insert(null, accounts.get(0));
+        insert(accounts.get(0), accounts.get(2));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        TestDatabase.deleteAccounts(accounts);
+    }
+
+    @Test
+    void accountHistoryIsOneStatement() {
+        List<TransactionRow> rows = transactionRepo.findRowsByAccountId(accounts.get(0));
+
+        assertEquals(3, rows.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void rowCarriesBothAccountNumbers() {
+        TransactionRow row = transactionRepo.findRowByReferenceId(transferRef).orElseThrow();
+
+        assertEquals(String.format("T%011d", accounts.get(0)), row.fromAccountNumber());
+        assertEquals(String.format("T%011d", accounts.get(1)), row.toAccountNumber());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void customerAccountsAreOneStatement() {
+        UUID customerId = jdbc.queryForObject("SELECT customer_id FROM accounts WHERE id = ?", UUID.class, accounts.get(0));
+
+        List<AccountView> views = accountRepo.findViewsByCustomerId(customerId);
+
+        assertEquals(3, views.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private String insert(Integer from, Integer to) {
+        String referenceId = "IT-" + UUID.randomUUID();
+        jdbc.update("INSERT INTO transactions (id, from_account_id, to_account_id, amount, type, status, reference_id, created_at) " +
+                        "VALUES (nextval('transactions_seq'), ?, ?, 10.00, ?, 'SUCCESS', ?, now())",
+                from, to, from == null ? "CREDIT" : "TRANSFER", referenceId);
+        return referenceId;
+    }
+}
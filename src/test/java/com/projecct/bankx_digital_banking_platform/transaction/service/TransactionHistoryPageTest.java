@@ -0,0 +1,24 @@
+package com.projecct.bankx_digital_banking_platform.transaction.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionHistoryPageTest {
+
+    @Test
+    void cursorRoundTrips() {
+        TransactionHistoryPage.Cursor cursor = new TransactionHistoryPage.Cursor(LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123456000), 812);
+
+        assertEquals(cursor, TransactionHistoryPage.Cursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionHistoryPage.Cursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionHistoryPage.Cursor.decode("MjAyNQ"));
+    }
+}
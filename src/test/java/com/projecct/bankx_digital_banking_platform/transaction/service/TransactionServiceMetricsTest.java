@@ -0,0 +1,56 @@
+package com.projecct.bankx_digital_banking_platform.transaction.service;
+
+import com.projecct.bankx_digital_banking_platform.common.id.ReferenceIdGenerator;
+import com.projecct.bankx_digital_banking_platform.transaction.Transaction;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.AccountLockingPoster;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConcurrencyMode;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.ConditionalUpdatePoster;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.Posting;
+import com.projecct.bankx_digital_banking_platform.transaction.engine.PostingEngine;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionHistoryRepo;
+import com.projecct.bankx_digital_banking_platform.transaction.repo.TransactionRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceMetricsTest {
+
+    private final ConditionalUpdatePoster poster = mock(ConditionalUpdatePoster.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final TransactionService service = new TransactionService(mock(TransactionRepo.class),
+            mock(TransactionHistoryRepo.class), mock(PostingEngine.class), mock(ObjectProvider.class),
+            mock(AccountLockingPoster.class), poster, mock(ReferenceIdGenerator.class), meterRegistry,
+            ConcurrencyMode.ATOMIC, 200, 1000);
+
+    @Test
+    void everyPostingIsTimedUnderItsOutcome() throws Exception {
+        when(poster.post(any(), any(), any(), any(), any()))
+                .thenReturn(posting(Transaction.Status.SUCCESS))
+                .thenReturn(posting(Transaction.Status.FAILED))
+                .thenThrow(new RuntimeException("Account not found"));
+
+        service.withdraw(1, BigDecimal.TEN, null);
+        service.withdraw(1, BigDecimal.TEN, null);
+        assertThrows(RuntimeException.class, () -> service.withdraw(1, BigDecimal.TEN, null));
+
+        for (String outcome : new String[]{"success", "rejected", "error"}) {
+            assertEquals(1, meterRegistry.get("bankx.posting.duration").tag("mode", "ATOMIC").tag("outcome", outcome)
+                    .timer().count(), outcome);
+        }
+    }
+
+    private static Posting posting(Transaction.Status status) {
+        return new Posting("TXN-1", Transaction.Type.DEBIT, status, 1, null, BigDecimal.TEN, 1, null,
+                BigDecimal.ZERO, null, "alice", LocalDateTime.now());
+    }
+}